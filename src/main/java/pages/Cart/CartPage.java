@@ -1,16 +1,14 @@
 package pages.Cart;
 
 import org.openqa.selenium.By;
-import org.openqa.selenium.WebElement;
 import properties.ToyDetails;
 import setup.elements.Table;
+import setup.elements.TableData;
 import setup.logger.Log;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.openqa.selenium.By.tagName;
-
 public class CartPage {
 
 //region LOCATORS
@@ -24,16 +22,16 @@ public class CartPage {
     public static List<ToyDetails> GetCartItems(){
 
         List<ToyDetails> ITEM_LIST = new ArrayList<>();
-        List<WebElement> rows = CartItemsTbl.getWebElement().findElements(tagName("tr"));
+        List<List<TableData.Cell>> rows = CartItemsTbl.getTableSnapshot().getRows(); //Whole cart in one round trip
 
         for (int i = 0; i < rows.size(); i++) {
-            List<WebElement> cells = rows.get(i).findElements(By.tagName("td"));
+            List<TableData.Cell> cells = rows.get(i);
 
             if (cells.size() == 5) { //Make sure table has 5 columns
-                String ITEM = cells.get(0).getText().trim();
-                String PRICE = cells.get(1).getText().trim();
-                int QUANTITY = Integer.parseInt(cells.get(2).findElement(By.tagName("input")).getAttribute("value"));
-                String SUBTOTAL = cells.get(3).getText().trim();
+                String ITEM = cells.get(0).getText();
+                String PRICE = cells.get(1).getText();
+                int QUANTITY = Integer.parseInt(cells.get(2).getInputValue());
+                String SUBTOTAL = cells.get(3).getText();
 
                 //Add each table row in the List
                 ITEM_LIST.add(new ToyDetails(ITEM, PRICE, QUANTITY, SUBTOTAL));
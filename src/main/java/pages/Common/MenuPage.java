@@ -5,8 +5,13 @@ import org.openqa.selenium.By;
 import org.testng.Assert;
 import properties.Pages;
 import setup.base.BasePage;
+import setup.config.WebDriverThread;
 import setup.elements.Element;
 import setup.logger.Log;
+import setup.utilities.ImplicitWait;
+import setup.utilities.StepProfiler;
+
+import static setup.utilities.StepProfiler.Category.NAVIGATION;
 
 
 public class MenuPage extends BasePage {
@@ -66,7 +71,11 @@ public class MenuPage extends BasePage {
                 Log.warn("Page not found");
         }
 
-        MENU.click();
+        StepProfiler.time(NAVIGATION, "Go to page", page, () -> {
+            MENU.click();
+            Element.invalidateHandles(); //The route change replaces the page's view
+            ImplicitWait.waitForPageSettle(WebDriverThread.MAX_WAIT); //The route's view and its requests are loaded
+        });
         String actualUrl = getPageUrl();
         Assert.assertTrue(actualUrl.contains(MODULE), "Navigated to incorrect Page");
 
@@ -0,0 +1,173 @@
+package pages.Shop;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import setup.elements.Button;
+import setup.elements.Element;
+import setup.logger.Log;
+import setup.utilities.ExplicitWait;
+import setup.utilities.ImplicitWait;
+import setup.utilities.PageScripts;
+import setup.utilities.StepProfiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
+import static setup.config.DriverFactory.getDriver;
+import static setup.utilities.StepProfiler.Category.ACTION;
+
+/**
+ * Index of the product cards on the shop page, built with one scan of the page
+ * and rebuilt after a navigation or when a card has been re-rendered.
+ */
+public final class ProductCatalogue {
+
+    private static final Map<WebDriver, ProductCatalogue> catalogues = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private Map<String, Product> products = Collections.emptyMap();
+    private long navigation = -1;
+
+    private ProductCatalogue() {
+    }
+
+    /**
+     * Get the catalogue of the current page, scanning the page if it has not been scanned since the last navigation
+     * @return the product catalogue
+     */
+    public static ProductCatalogue current() {
+        ProductCatalogue catalogue = catalogues.computeIfAbsent(getDriver(), driver -> new ProductCatalogue());
+        if (catalogue.navigation != Element.currentNavigation()) {
+            catalogue.scan();
+        }
+        return catalogue;
+    }
+
+    /**
+     * Get the price shown on the product card
+     * @param name the product name
+     * @return the product price
+     */
+    public String getPrice(String name) {
+        return find(name).price;
+    }
+
+    /**
+     * Click the buy button on the product card as a button element, so the interaction mode, the profiler and the
+     * loading waits apply as for any other click
+     * @param name the product name
+     */
+    public void buy(String name) {
+        find(name).buyButton.click();
+    }
+
+    /**
+     * Click the buy button on the product card several times in one script call, e.g. to buy a large quantity, timed
+     * as one step. The clicks are dispatched back to back without waiting for the page in between, which relies on the
+     * shop adding to the cart synchronously in the click handler; the callers verify the cart count afterwards
+     * @param name the product name
+     * @param quantity the number of clicks
+     */
+    public void buy(String name, int quantity) {
+        if (quantity == 1) {
+            buy(name);
+            return;
+        }
+        StepProfiler.time(ACTION, "Click " + quantity + " times", "BuyBtnFor " + name, () -> {
+            ImplicitWait.waitForLoadingInvisibility();
+            try {
+                clickRepeatedly(find(name).buyElement, quantity);
+            } catch (StaleElementReferenceException e) {
+                scan();
+                clickRepeatedly(find(name).buyElement, quantity);
+            }
+            ImplicitWait.waitForLoadingInvisibility();
+        });
+        Log.info("Clicked [BuyBtnFor " + name + "] button " + quantity + " time(s)");
+    }
+
+    /**
+     * Get the product card
+     * @param name the product name
+     * @return the card element
+     */
+    public WebElement getCard(String name) {
+        return find(name).card;
+    }
+
+    /**
+     * Get the names of all the products, in page order
+     * @return the product names
+     */
+    public List<String> getProductNames() {
+        return new ArrayList<>(products.keySet());
+    }
+
+    private Product find(String name) {
+        Product product = products.get(name);
+        if (product == null) {
+            throw new NotFoundException("Unable to find the product [" + name + "] in the shop catalogue");
+        }
+        return product;
+    }
+
+    private static void clickRepeatedly(WebElement buyButton, int quantity) {
+        WebElement button = new ExplicitWait().until(elementToBeClickable(buyButton));
+        ((JavascriptExecutor) getDriver()).executeScript(
+                "for (var i = 0; i < arguments[1]; i++) { arguments[0].click(); }", button, quantity);
+    }
+
+    /**
+     * Scan every product card of the page in one script call and index it by product name
+     */
+    @SuppressWarnings("unchecked")
+    private void scan() {
+        long navigation = Element.currentNavigation();
+        List<List<Object>> cards = new ExplicitWait().until(driver ->
+                (List<List<Object>>) ((JavascriptExecutor) driver).executeScript(PageScripts.get("productcatalogue.js")),
+                "product catalogue cards");
+
+        Map<String, Product> index = new LinkedHashMap<>();
+        for (List<Object> card : cards) {
+            String name = (String) card.get(0);
+            index.putIfAbsent(name, new Product(name, (String) card.get(1), (WebElement) card.get(2),
+                    (WebElement) card.get(3)));
+        }
+        Log.info("Indexed " + index.size() + " product(s) in the shop catalogue");
+
+        products = index;
+        this.navigation = navigation;
+    }
+
+    private static final class Product {
+        private final String price;
+        private final WebElement card;
+        private final WebElement buyElement;
+        private final Button buyButton;
+
+        private Product(String name, String price, WebElement card, WebElement buyElement) {
+            this.price = price;
+            this.card = card;
+            this.buyElement = buyElement;
+            this.buyButton = new Button("BuyBtnFor " + name, By.xpath("(//li[.//h4[normalize-space()="
+                    + xpathLiteral(name) + "]]//a)[1]"));
+        }
+
+        /**
+         * Quote the text for an XPath expression
+         * @param text the text to quote
+         * @return the XPath string literal
+         */
+        private static String xpathLiteral(String text) {
+            return text.contains("'") ? "\"" + text + "\"" : "'" + text + "'";
+        }
+    }
+}
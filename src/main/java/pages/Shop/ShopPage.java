@@ -3,8 +3,8 @@ package pages.Shop;
 import org.openqa.selenium.By;
 import org.testng.Assert;
 import pages.Common.MenuPage;
+import properties.PurchaseMode;
 import properties.ToyDetails;
-import setup.elements.Button;
 import setup.elements.Element;
 import setup.logger.Log;
 
@@ -22,40 +22,69 @@ public class ShopPage {
 //region PAGE ACTIONS
 
     /**
-     * Select and buy the specified toys and quantities
+     * Select and buy the specified toys and quantities, verifying the cart count after every click
      * @param toys the toy details to purchase
      * @return the Toy details purchased in Shop page
      */
     public static List<ToyDetails> BuyToys(List<ToyDetails> toys){
+        return BuyToys(toys, PurchaseMode.STRICT);
+    }
+
+    /**
+     * Select and buy the specified toys and quantities
+     * @param toys the toy details to purchase
+     * @param mode how the purchases are dispatched and how often the cart count is verified
+     * @return the Toy details purchased in Shop page
+     */
+    public static List<ToyDetails> BuyToys(List<ToyDetails> toys, PurchaseMode mode){
         List<ToyDetails> ADDED_TOYS = new ArrayList<>();
         int EXP_TOTAL = 0;
+        ProductCatalogue CATALOGUE = ProductCatalogue.current(); //All product cards indexed in one scan
 
         for(ToyDetails toy: toys){
             String ITEM_NAME = toy.getItem();
-
-            //Dynamic locators
-            Element ProductPriceLbl = new Element("ProductPriceFor " + ITEM_NAME, By.xpath("//h4[text()='"+ ITEM_NAME +"']/ancestor::li//span"));
-            Button BuyBtn = new Button("BuyBtnFor " + ITEM_NAME, By.xpath("//h4[text()='"+ ITEM_NAME +"']/ancestor::li//a"));
-
-            //Click Buy button according to quantity
-            for (int i = 0; i < toy.getQuantity(); i++) {
-                BuyBtn.click();
-
-                EXP_TOTAL += 1;
-                int ACT_TOTAL = Integer.parseInt(MenuPage.CartTotalLbl.getText());
-                Assert.assertEquals(ACT_TOTAL, EXP_TOTAL, "Incorrect Cart Total");
+            String PRICE = CATALOGUE.getPrice(ITEM_NAME);
+
+            if (mode == PurchaseMode.STRICT) {
+                //Click Buy button according to quantity
+                for (int i = 0; i < toy.getQuantity(); i++) {
+                    CATALOGUE.buy(ITEM_NAME);
+
+                    EXP_TOTAL += 1;
+                    VerifyCartTotal(EXP_TOTAL);
+                }
+            } else {
+                //Click Buy button for the whole quantity at once
+                CATALOGUE.buy(ITEM_NAME, toy.getQuantity());
+                EXP_TOTAL += toy.getQuantity();
+                if (mode == PurchaseMode.PER_ITEM) {
+                    VerifyCartTotal(EXP_TOTAL);
+                }
             }
 
             //Get the Expected Item Price and Subtotal within Shop page
-            toy.setPrice(ProductPriceLbl.getText());
-            toy.setSubTotal(ProductPriceLbl.getText(), toy.getQuantity());
+            toy.setPrice(PRICE);
+            toy.setSubTotal(PRICE, toy.getQuantity());
             ADDED_TOYS.add(toy);
             Log.info("Successfully added to Cart: " + toy);
         }
 
+        if (mode == PurchaseMode.PER_BASKET) {
+            VerifyCartTotal(EXP_TOTAL);
+        }
+
         return ADDED_TOYS;
     }
 
+    /**
+     * Verify the number of items shown in the cart
+     * @param expectedTotal the expected number of items
+     */
+    private static void VerifyCartTotal(int expectedTotal) {
+        int ACT_TOTAL = Integer.parseInt(MenuPage.CartTotalLbl.getText());
+        Assert.assertEquals(ACT_TOTAL, expectedTotal, "Incorrect Cart Total");
+    }
+
     /**
      * Sum all subtotals of group of items
      * @param toys
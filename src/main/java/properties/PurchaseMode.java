@@ -0,0 +1,19 @@
+package properties;
+
+public enum PurchaseMode {
+
+    /**
+     * Click Buy once per unit and verify the cart count after every click
+     */
+    STRICT,
+
+    /**
+     * Buy all units of an item in one dispatched sequence and verify the cart count once per item
+     */
+    PER_ITEM,
+
+    /**
+     * Buy all units of every item in one dispatched sequence each and verify the cart count once for the basket
+     */
+    PER_BASKET
+}
@@ -4,8 +4,12 @@ import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchWindowException;
 import setup.elements.Element;
 import setup.logger.Log;
+import setup.utilities.ImplicitWait;
+import setup.utilities.StepProfiler;
 
 import static setup.config.DriverFactory.getDriver;
+import static setup.config.WebDriverThread.MAX_WAIT;
+import static setup.utilities.StepProfiler.Category.NAVIGATION;
 
 
 /**
@@ -22,8 +26,12 @@ public abstract class BasePage {
 	 * @param url URL to open
 	 */
 	public static void openUrl(String url) {
-		getDriver().get(url);
-		Log.info("Navigated to [" + url + "]");
+		StepProfiler.time(NAVIGATION, "Open", url, () -> {
+			getDriver().get(url);
+			Element.invalidateHandles();
+			ImplicitWait.waitForPageSettle(MAX_WAIT);
+			Log.info("Navigated to [" + url + "]");
+		});
 	}
 
 	/**
@@ -52,8 +60,11 @@ public abstract class BasePage {
 	 * Refresh the current page.
 	 */
 	public static void refreshPage() {
-		getDriver().navigate().refresh();
-		Log.info("Refreshed the browser");
+		StepProfiler.time(NAVIGATION, "Refresh", null, () -> {
+			getDriver().navigate().refresh();
+			Element.invalidateHandles();
+			Log.info("Refreshed the browser");
+		});
 	}
 
 	/**
@@ -67,6 +78,7 @@ public abstract class BasePage {
 		for (String windowHandle : getDriver().getWindowHandles())
 			if (!windowHandle.equals(parentWindow))
 				getDriver().switchTo().window(windowHandle);
+		Element.invalidateHandles();
 	}
 
 	/**
@@ -82,6 +94,7 @@ public abstract class BasePage {
 				.filter(driver -> driver.getCurrentUrl().contains(urlText)).findFirst()
 				.orElseThrow(() -> new NoSuchWindowException(
 						"Unable to find window [" + description + "] which contains URL text [" + urlText + "]"));
+		Element.invalidateHandles();
 	}
 
 	/**
@@ -97,6 +110,7 @@ public abstract class BasePage {
 				.filter(driver -> driver.getTitle().contains(title)).findFirst()
 				.orElseThrow(() -> new NoSuchWindowException(
 						"Unable to find window [" + description + "] which contains title [" + title + "]"));
+		Element.invalidateHandles();
 	}
 
 	/**
@@ -107,6 +121,7 @@ public abstract class BasePage {
 	protected void switchToParentWindow(String description) {
 		Log.info("Switch to parent window [" + description + "]");
 		getDriver().switchTo().window(parentWindow);
+		Element.invalidateHandles();
 	}
 
 	/**
@@ -117,6 +132,7 @@ public abstract class BasePage {
 	protected void switchToFrame(Element element) {
 		Log.info("Switch to frame [" + element.getDescription() + "]");
 		getDriver().switchTo().frame(element.getWebElement());
+		Element.invalidateHandles();
 	}
 
 	/**
@@ -128,6 +144,7 @@ public abstract class BasePage {
 	protected void switchToFrame(String description, String nameOrId) {
 		Log.info("Switch to frame [" + description + "]");
 		getDriver().switchTo().frame(nameOrId);
+		Element.invalidateHandles();
 	}
 
 	/**
@@ -139,6 +156,7 @@ public abstract class BasePage {
 	protected void switchToFrame(String description, int index) {
 		Log.info("Switch to frame [" + description + "]");
 		getDriver().switchTo().frame(index);
+		Element.invalidateHandles();
 	}
 
 	/**
@@ -149,6 +167,7 @@ public abstract class BasePage {
 	protected void switchToDefaultContent(String description) {
 		Log.info("Switch to main window [" + description + "]");
 		getDriver().switchTo().defaultContent();
+		Element.invalidateHandles();
 	}
 
 
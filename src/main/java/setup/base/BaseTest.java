@@ -4,8 +4,11 @@ import com.codoid.products.exception.FilloException;
 import com.codoid.products.fillo.Connection;
 import com.codoid.products.fillo.Fillo;
 import com.codoid.products.fillo.Recordset;
+import org.testng.ITestResult;
 import org.testng.annotations.*;
 import properties.Environment;
+import setup.listeners.ResultExporter;
+import setup.listeners.RetryAnalyzer;
 import setup.listeners.TestReporter;
 import setup.listeners.TestRunListener;
 
@@ -26,7 +29,7 @@ import static setup.logger.Log.error;
  * To extend every test class created.
  *
  */
-@Listeners({ TestRunListener.class, TestReporter.class })
+@Listeners({ TestRunListener.class, TestReporter.class, ResultExporter.class })
 public abstract class BaseTest extends BasePage{
 
 	//Set default Environment
@@ -45,11 +48,28 @@ public abstract class BaseTest extends BasePage{
 	}
 
 	/**
-	 * Method to execute at the end of each test method execution.
+	 * Method to execute at the end of each test method execution, to reset the browser and return it to the pool, so
+	 * that no cookie or web storage, e.g. a cart, leaks into the next test leasing it. A test that is retried keeps its
+	 * browser, already reset by {@link RetryAnalyzer}, for the next attempt.
+	 *
+	 * @param result test method executed
 	 */
 	@AfterMethod(alwaysRun = true)
-	public void afterMethod() {
-		clearCookies();
+	public void afterMethod(ITestResult result) {
+		if (result.wasRetried()) {
+			return;
+		}
+		resetSession();
+		releaseDriver();
+	}
+
+	/**
+	 * Method to execute at the end of each test class execution, to return the browser leased by its configuration
+	 * methods to the pool.
+	 */
+	@AfterClass(alwaysRun = true)
+	public void afterClass() {
+		releaseDriver();
 	}
 
 	/**
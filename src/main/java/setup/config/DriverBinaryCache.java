@@ -0,0 +1,320 @@
+package setup.config;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import io.github.bonigarcia.wdm.online.HttpClient;
+import io.github.bonigarcia.wdm.versions.VersionDetector;
+import setup.logger.Log;
+import setup.utilities.Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * To keep the resolved driver binaries on disk, keyed by browser, installed browser major version and architecture, so
+ * that a browser launch never waits on driver resolution once the cache is warm. The cache folder can be shared between JVMs and copied to
+ * build agents without internet access.
+ *
+ */
+final class DriverBinaryCache {
+
+	private static final Path CACHE_DIRECTORY = Paths.get(Configuration.get("driverCachePath",
+			Paths.get(System.getProperty("user.home"), ".cache", "jupitertoyshop", "drivers").toString()));
+	private static final Path MANIFEST = CACHE_DIRECTORY.resolve("manifest.properties");
+	private static final Path LOCK = CACHE_DIRECTORY.resolve(".lock");
+	private static final Duration MAX_AGE = Duration.ofDays(Configuration.getInt("driverCacheDays", 7));
+	private static final Map<String, Path> validatedBinaries = new ConcurrentHashMap<>();
+	private static final Map<DriverType, String> keys = new ConcurrentHashMap<>();
+
+	private DriverBinaryCache() {
+	}
+
+	/**
+	 * Point the driver's system property to the cached binary, resolving and caching it first if needed.
+	 *
+	 * @param driverType     browser's driver type
+	 * @param manager        web driver manager of the browser
+	 * @param driverProperty system property holding the driver binary path
+	 */
+	static void setup(DriverType driverType, Supplier<WebDriverManager> manager, String driverProperty) {
+		String key = key(driverType, manager);
+		Path binary = validatedBinaries.computeIfAbsent(key, cacheKey -> lookupOrResolve(cacheKey, manager));
+		System.setProperty(driverProperty, binary.toString());
+	}
+
+	/**
+	 * Forget the cached binary, e.g. when the browser no longer accepts it after an update.
+	 *
+	 * @param driverType browser's driver type
+	 */
+	static void invalidate(DriverType driverType) {
+		String key = keys.remove(driverType);
+		if (key == null) {
+			return;
+		}
+		validatedBinaries.remove(key);
+		try {
+			withLock(() -> {
+				Properties manifest = readManifest();
+				manifest.remove(key + ".path");
+				manifest.remove(key + ".sha256");
+				manifest.remove(key + ".resolved");
+				writeManifest(manifest);
+				return null;
+			});
+			Log.warn("[Driver Cache] Invalidated the cached driver for '" + key + "'");
+		} catch (IOException e) {
+			Log.error("[Driver Cache] Unable to invalidate the cached driver for '" + key + "'", e);
+		}
+	}
+
+	/**
+	 * Get the cached binary if its checksum is valid, otherwise resolve and cache it. The file lock is only held to read
+	 * and update the manifest, never while the driver is downloaded.
+	 *
+	 * @param key     cache key
+	 * @param manager web driver manager of the browser
+	 * @return path of the driver binary
+	 */
+	private static Path lookupOrResolve(String key, Supplier<WebDriverManager> manager) {
+		try {
+			Path cached = withLock(() -> {
+				Properties manifest = readManifest();
+				Path valid = validEntry(manifest, key);
+				if (valid != null) {
+					long resolved = Long.parseLong(manifest.getProperty(key + ".resolved", "0"));
+					if (System.currentTimeMillis() - resolved > MAX_AGE.toMillis()) {
+						refreshInBackground(key, manager);
+					}
+					Log.info("[Driver Cache] Using cached driver for '" + key + "': " + valid);
+				}
+				return valid;
+			});
+			return cached != null ? cached : resolve(key, manager);
+		} catch (IOException e) {
+			Log.error("[Driver Cache] Unable to use the driver cache, resolving '" + key + "' directly", e);
+			WebDriverManager webDriverManager = manager.get();
+			webDriverManager.setup();
+			return Paths.get(webDriverManager.getDownloadedDriverPath());
+		}
+	}
+
+	/**
+	 * Resolve the driver with web driver manager and copy it into the cache, in a folder of its own driver version so
+	 * that a binary in use is never overwritten. Only the update of the manifest entry holds the file lock.
+	 *
+	 * @param key     cache key
+	 * @param manager web driver manager of the browser
+	 * @return path of the cached driver binary
+	 * @throws IOException if the binary cannot be copied
+	 */
+	private static Path resolve(String key, Supplier<WebDriverManager> manager) throws IOException {
+		Log.info("[Driver Cache] Resolving the driver for '" + key + "'");
+		WebDriverManager webDriverManager = manager.get().cachePath(CACHE_DIRECTORY.resolve("wdm").toString());
+		String browserVersion = Configuration.get("browserVersion", "");
+		if (!browserVersion.isEmpty()) {
+			webDriverManager.browserVersion(browserVersion);
+		}
+		webDriverManager.setup();
+		String driverVersion = String.valueOf(webDriverManager.getDownloadedDriverVersion());
+		Path downloaded = Paths.get(webDriverManager.getDownloadedDriverPath());
+		Path cached = CACHE_DIRECTORY.resolve(key).resolve(driverVersion).resolve(downloaded.getFileName());
+		Files.createDirectories(cached.getParent());
+		Path temporary = Files.createTempFile(cached.getParent(), downloaded.getFileName().toString(), ".tmp");
+		Files.copy(downloaded, temporary, REPLACE_EXISTING);
+		temporary.toFile().setExecutable(true);
+		String sha256 = checksum(temporary);
+		withLock(() -> {
+			if (Files.notExists(cached) || !sha256.equals(checksum(cached))) {
+				Files.move(temporary, cached, REPLACE_EXISTING);
+			}
+			Properties manifest = readManifest();
+			manifest.setProperty(key + ".path", CACHE_DIRECTORY.relativize(cached).toString());
+			manifest.setProperty(key + ".sha256", sha256);
+			manifest.setProperty(key + ".version", driverVersion);
+			manifest.setProperty(key + ".resolved", String.valueOf(System.currentTimeMillis()));
+			writeManifest(manifest);
+			return null;
+		});
+		Files.deleteIfExists(temporary);
+		return cached;
+	}
+
+	/**
+	 * Re-resolve an expired entry without blocking the browser launch. The stale binary stays in use if the
+	 * resolution fails, e.g. on an agent without internet access.
+	 *
+	 * @param key     cache key
+	 * @param manager web driver manager of the browser
+	 */
+	private static void refreshInBackground(String key, Supplier<WebDriverManager> manager) {
+		Thread refresh = new Thread(() -> {
+			try {
+				resolve(key, manager);
+			} catch (IOException | RuntimeException e) {
+				Log.warn("[Driver Cache] Unable to refresh the expired driver for '" + key + "', keeping the cached one");
+			}
+		}, "driver-cache-refresh");
+		refresh.setDaemon(true);
+		refresh.start();
+	}
+
+	/**
+	 * Get the cached binary of the entry if it exists and its checksum matches the manifest.
+	 *
+	 * @param manifest cache manifest
+	 * @param key      cache key
+	 * @return path of the cached binary, or null if missing or corrupt
+	 * @throws IOException if the binary cannot be read
+	 */
+	private static Path validEntry(Properties manifest, String key) throws IOException {
+		String path = manifest.getProperty(key + ".path");
+		String sha256 = manifest.getProperty(key + ".sha256");
+		if (path == null || sha256 == null) {
+			return null;
+		}
+		Path cached = CACHE_DIRECTORY.resolve(path);
+		if (Files.notExists(cached) || !sha256.equals(checksum(cached))) {
+			Log.warn("[Driver Cache] Cached driver for '" + key + "' is missing or corrupt");
+			return null;
+		}
+		return cached;
+	}
+
+	/**
+	 * Get the cache key of the driver type on this machine, with the <b>browserVersion</b> property or else the major
+	 * version of the installed browser, detected once per JVM, so that a browser upgrade resolves a new driver.
+	 *
+	 * @param driverType browser's driver type
+	 * @param manager    web driver manager of the browser
+	 * @return cache key
+	 */
+	private static String key(DriverType driverType, Supplier<WebDriverManager> manager) {
+		return keys.computeIfAbsent(driverType, type -> {
+			String version = Configuration.get("browserVersion", "");
+			if (version.isEmpty()) {
+				version = installedBrowserVersion(manager.get());
+			}
+			String operatingSystem = System.getProperty("os.name").replaceAll("\\W", "");
+			return (type + "-" + version + "-" + operatingSystem + "-" + System.getProperty("os.arch")).toLowerCase();
+		});
+	}
+
+	/**
+	 * Detect the major version of the installed browser from the shell, without going online.
+	 *
+	 * @param manager web driver manager of the browser
+	 * @return major version, or <b>installed</b> if it cannot be detected
+	 */
+	private static String installedBrowserVersion(WebDriverManager manager) {
+		try {
+			VersionDetector detector = new VersionDetector(manager.config(), new HttpClient(manager.config()));
+			return detector.getBrowserVersionFromTheShell(manager.getDriverManagerType().getBrowserNameLowerCase())
+					.map(VersionDetector::getMajorVersion).orElse("installed");
+		} catch (RuntimeException e) {
+			Log.warn("[Driver Cache] Unable to detect the installed browser version: " + e.getMessage());
+			return "installed";
+		}
+	}
+
+	/**
+	 * Run the action while holding the cache's file lock, which is shared between JVMs.
+	 *
+	 * @param <T>    the output to return
+	 * @param action action to run
+	 * @return output of the action
+	 * @throws IOException if the lock cannot be taken or the action fails
+	 */
+	private static <T> T withLock(CacheAction<T> action) throws IOException {
+		synchronized (DriverBinaryCache.class) {
+			Files.createDirectories(CACHE_DIRECTORY);
+			try (FileChannel channel = FileChannel.open(LOCK, CREATE, WRITE)) {
+				channel.lock();
+				return action.run();
+			}
+		}
+	}
+
+	/**
+	 * Read the cache manifest.
+	 *
+	 * @return manifest properties
+	 * @throws IOException if the manifest cannot be read
+	 */
+	private static Properties readManifest() throws IOException {
+		Properties manifest = new Properties();
+		if (Files.exists(MANIFEST)) {
+			try (InputStream in = Files.newInputStream(MANIFEST)) {
+				manifest.load(in);
+			}
+		}
+		return manifest;
+	}
+
+	/**
+	 * Write the cache manifest.
+	 *
+	 * @param manifest manifest properties
+	 * @throws IOException if the manifest cannot be written
+	 */
+	private static void writeManifest(Properties manifest) throws IOException {
+		Path temporary = MANIFEST.resolveSibling(MANIFEST.getFileName() + ".tmp");
+		try (OutputStream out = Files.newOutputStream(temporary)) {
+			manifest.store(out, "Resolved driver binaries");
+		}
+		Files.move(temporary, MANIFEST, REPLACE_EXISTING);
+	}
+
+	/**
+	 * Get the SHA-256 checksum of the file.
+	 *
+	 * @param file file to digest
+	 * @return hexadecimal checksum
+	 * @throws IOException if the file cannot be read
+	 */
+	private static String checksum(Path file) throws IOException {
+		try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file),
+				MessageDigest.getInstance("SHA-256"))) {
+			byte[] buffer = new byte[8192];
+			while (in.read(buffer) != -1) {
+				// Reading the stream updates the digest
+			}
+			StringBuilder hex = new StringBuilder();
+			for (byte b : in.getMessageDigest().digest()) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * An action run while holding the cache's file lock.
+	 *
+	 * @param <T> the output to return
+	 */
+	@FunctionalInterface
+	private interface CacheAction<T> {
+
+		T run() throws IOException;
+
+	}
+
+}
@@ -1,9 +1,14 @@
 package setup.config;
 
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import setup.logger.Log;
+import setup.utilities.Configuration;
+import setup.utilities.Screencast;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -12,52 +17,136 @@ import java.util.List;
  */
 public final class DriverFactory {
 
-	private static final List<WebDriverThread> driverThreadPool = Collections
-			.synchronizedList(new ArrayList<>());
-	private static ThreadLocal<WebDriverThread> driverThread;
+	private static DriverPool driverPool;
+	private static final ThreadLocal<WebDriverThread> driverThread = new ThreadLocal<>();
 
 	private DriverFactory() {
 	}
 
 	/**
-	 * Initialize the web driver thread.
+	 * Initialize the web driver pool and start warming up its browser sessions in the background.
+	 * The pool size can be set with the <b>poolMinSize</b> and <b>poolMaxSize</b> properties, and the idle sessions are
+	 * checked for dead browsers every <b>poolHealthCheckSeconds</b>.
 	 */
-	public static void instantiateDriverObject() {
-		driverThread = ThreadLocal.withInitial(DriverFactory::createWebDriverThread);
+	public static synchronized void instantiateDriverObject() {
+		if (driverPool != null) {
+			return;
+		}
+		int maxSize = Configuration.getInt("poolMaxSize", 4);
+		int minSize = Configuration.getInt("poolMinSize", 1);
+		driverPool = new DriverPool(minSize, maxSize);
+		driverPool.warmUp();
+		driverPool.scheduleHealthCheck(Configuration.getInt("poolHealthCheckSeconds", 30));
 	}
 
 	/**
-	 * Get the current thread's web driver instance.
+	 * Get the current thread's web driver instance, leasing one from the pool on the first call. The screencast frames
+	 * of the leased browser's previous test are dropped, so they never show up in this thread's failures.
 	 * 
 	 * @return web driver instance
 	 */
 	public static WebDriver getDriver() {
-		return driverThread.get().getDriver();
+		WebDriverThread webDriverThread = driverThread.get();
+		if (webDriverThread == null) {
+			webDriverThread = driverPool.lease();
+			driverThread.set(webDriverThread);
+			Screencast.attach(webDriverThread.getDriver());
+			Screencast.discard(webDriverThread.getDriver());
+		}
+		return webDriverThread.getDriver();
 	}
 
 	/**
-	 * Clear all cookies in the current thread's web driver instance.
+	 * Get the current thread's web driver instance, without leasing one.
+	 * 
+	 * @return web driver instance, or null if the thread has no browser
 	 */
-	public static void clearCookies() {
-		getDriver().manage().deleteAllCookies();
+	public static WebDriver currentDriver() {
+		WebDriverThread webDriverThread = driverThread.get();
+		return webDriverThread == null ? null : webDriverThread.getDriver();
 	}
 
 	/**
-	 * Close the all the driver instances.
+	 * Get the session id of the current thread's browser, without leasing one.
+	 * 
+	 * @return session id, or null if the thread has no browser
 	 */
-	public static void closeDriverObjects() {
-		driverThreadPool.forEach(WebDriverThread::quitDriver);
+	public static String currentSessionId() {
+		WebDriverThread webDriverThread = driverThread.get();
+		return webDriverThread == null ? null : webDriverThread.getSessionId();
 	}
 
 	/**
-	 * Create a web driver thread object.
+	 * Return the current thread's web driver instance to the pool, if it has leased one, dropping its screencast frames.
+	 */
+	public static void releaseDriver() {
+		WebDriverThread webDriverThread = driverThread.get();
+		if (webDriverThread != null) {
+			driverThread.remove();
+			Screencast.discard(webDriverThread.getDriver());
+			driverPool.release(webDriverThread);
+		}
+	}
+
+	/**
+	 * Reset the current thread's browser to a blank state without relaunching it: dismiss any alert, record the memory
+	 * of the page against the launch profile, close every window but the first, clear the cookies and the web storage
+	 * of the current page, and load a blank page. A browser that no longer responds is returned to the pool instead, so
+	 * the next call to {@link #getDriver()} leases another one.
 	 * 
-	 * @return web driver thread object
+	 * @return true if the warm browser was reset, false if the thread has no browser or it was given up
+	 */
+	public static boolean resetSession() {
+		WebDriverThread webDriverThread = driverThread.get();
+		if (webDriverThread == null) {
+			return false;
+		}
+		if (!webDriverThread.isAlive()) {
+			releaseDriver();
+			return false;
+		}
+		WebDriver driver = webDriverThread.getDriver();
+		try {
+			try {
+				driver.switchTo().alert().dismiss();
+			} catch (NoAlertPresentException e) {
+				// Nothing to dismiss
+			}
+			webDriverThread.recordMemory();
+			List<String> windows = new ArrayList<>(driver.getWindowHandles());
+			for (String window : windows.subList(1, windows.size())) {
+				driver.switchTo().window(window).close();
+			}
+			driver.switchTo().window(windows.get(0));
+			driver.manage().deleteAllCookies();
+			((JavascriptExecutor) driver).executeScript(
+					"try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+			driver.get("about:blank");
+			return true;
+		} catch (WebDriverException e) {
+			Log.warn("Unable to reset the browser session, returning it to the pool: " + e.getMessage());
+			releaseDriver();
+			return false;
+		}
+	}
+
+	/**
+	 * Clear all cookies in the current thread's web driver instance.
+	 */
+	public static void clearCookies() {
+		getDriver().manage().deleteAllCookies();
+	}
+
+	/**
+	 * Close the all the driver instances.
 	 */
-	private static WebDriverThread createWebDriverThread() {
-		WebDriverThread webDriverThread = new WebDriverThread();
-		driverThreadPool.add(webDriverThread);
-		return webDriverThread;
+	public static synchronized void closeDriverObjects() {
+		if (driverPool != null) {
+			Log.info("[Launch Profile] " + LaunchProfile.launchSummary());
+			driverPool.shutdown();
+			driverPool = null;
+		}
+		driverThread.remove();
 	}
 
 }
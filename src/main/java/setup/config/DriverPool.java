@@ -0,0 +1,240 @@
+package setup.config;
+
+import setup.logger.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static setup.config.WebDriverThread.MAX_WAIT;
+
+/**
+ * To keep a pool of pre-warmed web driver sessions that the worker threads lease and return.
+ *
+ */
+public final class DriverPool {
+
+	private static final WebDriverThread LAUNCH_FAILED = new WebDriverThread();
+
+	private final int minSize;
+	private final int maxSize;
+	private final BlockingDeque<WebDriverThread> idleSessions = new LinkedBlockingDeque<>();
+	private final List<WebDriverThread> allSessions = Collections.synchronizedList(new ArrayList<>());
+	private final AtomicInteger size = new AtomicInteger();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final ScheduledExecutorService launcher;
+	private volatile boolean closed;
+
+	/**
+	 * Create a pool of web driver sessions.
+	 *
+	 * @param minSize number of sessions to keep launched in the background
+	 * @param maxSize maximum number of sessions the pool may hold
+	 */
+	public DriverPool(int minSize, int maxSize) {
+		this.maxSize = Math.max(1, maxSize);
+		this.minSize = Math.max(0, Math.min(minSize, this.maxSize));
+		launcher = Executors.newScheduledThreadPool(Math.max(1, this.minSize), runnable -> {
+			Thread thread = new Thread(runnable, "driver-pool-launcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Launch the minimum number of sessions in parallel in the background.
+	 */
+	public void warmUp() {
+		Log.info("[Driver Pool] Warming up " + minSize + " browser session(s), maximum " + maxSize);
+		refill();
+	}
+
+	/**
+	 * Check the idle sessions periodically, evicting the ones whose browser is no longer responding.
+	 *
+	 * @param seconds seconds between two checks, or 0 or less not to check
+	 */
+	public void scheduleHealthCheck(int seconds) {
+		if (seconds <= 0) {
+			return;
+		}
+		launcher.scheduleWithFixedDelay(() -> {
+			try {
+				evictDeadSessions();
+			} catch (RuntimeException e) {
+				Log.error("[Driver Pool] Unable to check the health of the idle browser sessions", e);
+			}
+		}, seconds, seconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Lease a healthy session from the pool, launching a new one if none is idle and the pool is not full.
+	 *
+	 * @return web driver thread with a running browser
+	 */
+	public WebDriverThread lease() {
+		long deadline = System.nanoTime() + MAX_WAIT.toNanos();
+		while (!closed) {
+			WebDriverThread session = idleSessions.pollFirst();
+			if (session == null) {
+				if (pending.get() == 0 && reserveSlot()) {
+					return launch();
+				}
+				session = awaitIdleSession(deadline);
+			}
+			if (session == LAUNCH_FAILED) {
+				continue;
+			}
+			if (session.isAlive()) {
+				return session;
+			}
+			evict(session);
+		}
+		throw new IllegalStateException("The driver pool has already been closed");
+	}
+
+	/**
+	 * Return a session to the pool so another thread may lease it.
+	 *
+	 * @param session web driver thread to return
+	 */
+	public void release(WebDriverThread session) {
+		if (closed) {
+			session.quitDriver();
+		} else if (!session.isAlive()) {
+			evict(session);
+		} else {
+			idleSessions.offerFirst(session);
+		}
+	}
+
+	/**
+	 * Quit the idle sessions whose browser is no longer responding. Each session is taken out of the pool only while it
+	 * is checked, so the other sessions can still be leased.
+	 */
+	public void evictDeadSessions() {
+		for (WebDriverThread session : new ArrayList<>(idleSessions)) {
+			if (session == LAUNCH_FAILED || closed || !idleSessions.remove(session)) {
+				continue;
+			}
+			if (session.isAlive()) {
+				idleSessions.offerLast(session);
+			} else {
+				evict(session);
+			}
+		}
+	}
+
+	/**
+	 * Quit every session launched by the pool.
+	 */
+	public void shutdown() {
+		closed = true;
+		launcher.shutdownNow();
+		idleSessions.clear();
+		synchronized (allSessions) {
+			allSessions.forEach(WebDriverThread::quitDriver);
+			allSessions.clear();
+		}
+		size.set(0);
+	}
+
+	/**
+	 * Wait for a session launched in the background or returned by another thread.
+	 *
+	 * @param deadline nano time after which to stop waiting
+	 * @return idle web driver thread
+	 */
+	private WebDriverThread awaitIdleSession(long deadline) {
+		try {
+			long remaining = deadline - System.nanoTime();
+			WebDriverThread session = remaining > 0 ? idleSessions.pollFirst(remaining, TimeUnit.NANOSECONDS) : null;
+			if (session == null) {
+				throw new IllegalStateException("No browser session became available in the pool within " + MAX_WAIT);
+			}
+			return session;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a browser session", e);
+		}
+	}
+
+	/**
+	 * Launch the background sessions needed to keep the pool at its minimum size. A failed launch wakes up one
+	 * waiting thread, so it launches the session itself instead of waiting for one that never comes.
+	 */
+	private void refill() {
+		while (!closed && size.get() < minSize && reserveSlot()) {
+			pending.incrementAndGet();
+			launcher.execute(() -> {
+				WebDriverThread session = LAUNCH_FAILED;
+				try {
+					session = launch();
+				} catch (RuntimeException e) {
+					Log.error("[Driver Pool] Unable to launch a browser session in the background", e);
+				} finally {
+					pending.decrementAndGet();
+					idleSessions.offerLast(session);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Launch a new session in the calling thread.
+	 *
+	 * @return web driver thread with a running browser
+	 */
+	private WebDriverThread launch() {
+		WebDriverThread session = new WebDriverThread();
+		try {
+			session.getDriver();
+		} catch (RuntimeException e) {
+			size.decrementAndGet();
+			throw e;
+		}
+		allSessions.add(session);
+		return session;
+	}
+
+	/**
+	 * Reserve room in the pool for one more session.
+	 *
+	 * @return true if there was room, false if the pool is full
+	 */
+	private boolean reserveSlot() {
+		int current;
+		do {
+			current = size.get();
+			if (current >= maxSize) {
+				return false;
+			}
+		} while (!size.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	/**
+	 * Quit and forget a session.
+	 *
+	 * @param session web driver thread to evict
+	 */
+	private void evict(WebDriverThread session) {
+		Log.warn("[Driver Pool] Evicting a browser session that is no longer responding");
+		try {
+			session.quitDriver();
+		} catch (RuntimeException e) {
+			Log.error("[Driver Pool] Unable to quit the evicted browser session", e);
+		}
+		if (allSessions.remove(session)) {
+			size.decrementAndGet();
+		}
+		refill();
+	}
+
+}
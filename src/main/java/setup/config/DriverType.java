@@ -12,6 +12,9 @@ import org.openqa.selenium.firefox.FirefoxProfile;
 
 import java.util.HashMap;
 
+import static org.openqa.selenium.chrome.ChromeDriverService.CHROME_DRIVER_EXE_PROPERTY;
+import static org.openqa.selenium.edge.EdgeDriverService.EDGE_DRIVER_EXE_PROPERTY;
+import static org.openqa.selenium.firefox.GeckoDriverService.GECKO_DRIVER_EXE_PROPERTY;
 import static setup.base.BaseTest.DOWNLOADS_DIRECTORY;
 import static setup.base.BaseTest.FOR_CHECKING;
 
@@ -39,6 +42,7 @@ public enum DriverType implements DriverSetup {
 			options.addArguments("--remote-allow-origins=*");
 			//options.addArguments("incognito");
 			options.addArguments("disable-dev-shm-usage");
+			LaunchProfile.current().apply(options);
 
 //			// Set the default download folder
 //			HashMap<String, Object> chromePrefs = new HashMap<String, Object>();
@@ -48,7 +52,7 @@ public enum DriverType implements DriverSetup {
 //			chromePrefs.put("safebrowsing.enabled", "true"); // Disable the safe browsing feature that blocks certain downloads
 //			options.setExperimentalOption("prefs", chromePrefs);
 
-			WebDriverManager.chromedriver().clearDriverCache().setup();
+			DriverBinaryCache.setup(this, WebDriverManager::chromedriver, CHROME_DRIVER_EXE_PROPERTY);
 			return new ChromeDriver(options);
 		}
 	},
@@ -72,6 +76,7 @@ public enum DriverType implements DriverSetup {
 			options.addArguments("disable-gpu"); // If necessary
 			options.addArguments("disable-dev-shm-usage"); // Overcome limited resource problems
 			options.addArguments("--remote-allow-origins=*");
+			LaunchProfile.current().apply(options);
 
 //			// Set the default download folder using preferences
 //			HashMap<String, Object> edgePrefs = new HashMap<>();
@@ -81,7 +86,7 @@ public enum DriverType implements DriverSetup {
 //			edgePrefs.put("download.directory_upgrade", true); // Use this to overcome default download directory limitations
 //			options.setExperimentalOption("prefs", edgePrefs);
 
-			WebDriverManager.edgedriver().clearDriverCache().setup();
+			DriverBinaryCache.setup(this, WebDriverManager::edgedriver, EDGE_DRIVER_EXE_PROPERTY);
 			return new EdgeDriver(options);
 		}
 	},
@@ -101,6 +106,7 @@ public enum DriverType implements DriverSetup {
 			options.setCapability("marionette", true);
 			options.addArguments("--no-sandbox");
 			options.addArguments("--disable-extensions");
+			LaunchProfile.current().apply(options);
 
 //			FirefoxProfile profile = new FirefoxProfile();
 //			// Set preferences for file downloading
@@ -110,7 +116,7 @@ public enum DriverType implements DriverSetup {
 //			options.setProfile(profile);
 
 			// Note: Firefox might not support some arguments as Chrome or Edge does, e.g., "dns-prefetch-disable"
-			WebDriverManager.firefoxdriver().clearDriverCache().setup();
+			DriverBinaryCache.setup(this, WebDriverManager::firefoxdriver, GECKO_DRIVER_EXE_PROPERTY);
 			return new FirefoxDriver(options);
 		}
 	}
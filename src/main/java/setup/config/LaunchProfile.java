@@ -0,0 +1,208 @@
+package setup.config;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import setup.logger.Log;
+import setup.utilities.Configuration;
+
+import java.util.EnumMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * To handle the browser launch profiles, selected with the <b>launchProfile</b> property.
+ *
+ */
+public enum LaunchProfile {
+
+	/**
+	 * This is the full headed browser.
+	 */
+	FULL(false, false),
+
+	/**
+	 * This is the full browser without a window.
+	 */
+	HEADLESS(true, false),
+
+	/**
+	 * This is the headless browser without images, web fonts, background networking, component updates and GPU
+	 * compositing.
+	 */
+	LEAN(true, true);
+
+	private static final Map<LaunchProfile, long[]> launchStatistics = new EnumMap<>(LaunchProfile.class);
+	private final boolean headless;
+	private final boolean lean;
+
+	LaunchProfile(boolean headless, boolean lean) {
+		this.headless = headless;
+		this.lean = lean;
+	}
+
+	/**
+	 * Get the launch profile selected for this run.
+	 *
+	 * @return launch profile
+	 */
+	public static LaunchProfile current() {
+		String profile = Configuration.get("launchProfile", FULL.name());
+		try {
+			return valueOf(profile.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			Log.warn("Unknown launch profile '" + profile + "', defaulting to '" + FULL + "'...");
+			return FULL;
+		}
+	}
+
+	/**
+	 * Check whether the profile launches the browser without a window.
+	 *
+	 * @return true if headless, false otherwise
+	 */
+	public boolean isHeadless() {
+		return headless;
+	}
+
+	/**
+	 * Apply the profile to the Chrome or Edge options.
+	 *
+	 * @param options chromium browser options
+	 */
+	public void apply(ChromiumOptions<?> options) {
+		if (headless) {
+			options.addArguments("--headless=new");
+		}
+		if (lean) {
+			options.addArguments("--blink-settings=imagesEnabled=false");
+			options.addArguments("--disable-remote-fonts");
+			options.addArguments("--disable-background-networking");
+			options.addArguments("--disable-component-update");
+			options.addArguments("--disable-gpu");
+			options.addArguments("--disable-gpu-compositing");
+			options.addArguments("--disable-sync");
+			options.addArguments("--no-first-run");
+			options.addArguments("--mute-audio");
+			Map<String, Object> prefs = currentPrefs(options);
+			prefs.put("profile.managed_default_content_settings.images", 2);
+			options.setExperimentalOption("prefs", prefs);
+		}
+	}
+
+	/**
+	 * Get a copy of the preferences already set in the Chrome or Edge options, so the profile adds to them.
+	 *
+	 * @param options chromium browser options
+	 * @return preferences set so far
+	 */
+	private static Map<String, Object> currentPrefs(ChromiumOptions<?> options) {
+		Map<String, Object> prefs = new HashMap<>();
+		for (Object browserOptions : options.asMap().values()) {
+			Object existingPrefs = browserOptions instanceof Map ? ((Map<?, ?>) browserOptions).get("prefs") : null;
+			if (existingPrefs instanceof Map) {
+				((Map<?, ?>) existingPrefs).forEach((name, value) -> prefs.put(String.valueOf(name), value));
+			}
+		}
+		return prefs;
+	}
+
+	/**
+	 * Apply the profile to the Firefox options.
+	 *
+	 * @param options firefox browser options
+	 */
+	public void apply(FirefoxOptions options) {
+		if (headless) {
+			options.addArguments("-headless");
+		}
+		if (lean) {
+			options.addPreference("permissions.default.image", 2);
+			options.addPreference("gfx.downloadable_fonts.enabled", false);
+			options.addPreference("network.prefetch-next", false);
+			options.addPreference("network.dns.disablePrefetch", true);
+			options.addPreference("app.update.auto", false);
+			options.addPreference("extensions.update.enabled", false);
+			options.addPreference("browser.safebrowsing.downloads.remote.enabled", false);
+			options.addPreference("layers.acceleration.disabled", true);
+		}
+	}
+
+	/**
+	 * Record the launch time of a browser started with this profile.
+	 *
+	 * @param driverType    browser's driver type
+	 * @param launchMillis  time taken to launch the browser
+	 */
+	public void recordLaunch(DriverType driverType, long launchMillis) {
+		synchronized (launchStatistics) {
+			long[] statistics = launchStatistics.computeIfAbsent(this, profile -> new long[4]);
+			statistics[0]++;
+			statistics[1] += launchMillis;
+		}
+		Log.info("[Launch Profile] " + this + ": " + driverType + " launched in " + launchMillis + " ms");
+	}
+
+	/**
+	 * Record the memory of the page open in a browser started with this profile, e.g. at the end of a test. The
+	 * JavaScript heap of the page is read through the DevTools <b>Performance.getMetrics</b> command, which only Chrome
+	 * and Edge support; for other browsers nothing is recorded and the summary shows the memory as not available.
+	 *
+	 * @param driver browser started with this profile
+	 */
+	public void recordMemory(WebDriver driver) {
+		if (!(driver instanceof ChromiumDriver)) {
+			return;
+		}
+		long heapBytes = -1;
+		try {
+			ChromiumDriver chromium = (ChromiumDriver) driver;
+			chromium.executeCdpCommand("Performance.enable", Collections.emptyMap());
+			Object metrics = chromium.executeCdpCommand("Performance.getMetrics", Collections.emptyMap())
+					.get("metrics");
+			for (Object metric : metrics instanceof List ? (List<?>) metrics : Collections.emptyList()) {
+				if (metric instanceof Map && "JSHeapTotalSize".equals(((Map<?, ?>) metric).get("name"))) {
+					heapBytes = ((Number) ((Map<?, ?>) metric).get("value")).longValue();
+				}
+			}
+		} catch (WebDriverException e) {
+			Log.warn("[Launch Profile] Unable to read the memory of the page: " + e.getMessage());
+		}
+		if (heapBytes < 0) {
+			return;
+		}
+		synchronized (launchStatistics) {
+			long[] statistics = launchStatistics.computeIfAbsent(this, profile -> new long[4]);
+			statistics[2]++;
+			statistics[3] += heapBytes;
+		}
+	}
+
+	/**
+	 * Get the summary of the launches and page memory recorded for every profile.
+	 *
+	 * @return launch summary
+	 */
+	public static String launchSummary() {
+		StringBuilder summary = new StringBuilder();
+		synchronized (launchStatistics) {
+			launchStatistics.forEach((profile, statistics) -> {
+				summary.append(summary.length() == 0 ? "" : "; ").append(profile).append(": ").append(statistics[0])
+						.append(" launch(es), average ").append(statistics[0] == 0 ? 0 : statistics[1] / statistics[0])
+						.append(" ms, ");
+				if (statistics[2] == 0) {
+					summary.append("page memory not available");
+				} else {
+					summary.append("average page JS heap ").append(statistics[3] / statistics[2] / (1024 * 1024))
+							.append(" MB over ").append(statistics[2]).append(" test(s)");
+				}
+			});
+		}
+		return summary.toString();
+	}
+
+}
@@ -1,7 +1,11 @@
 package setup.config;
 
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.RemoteWebDriver;
 import setup.logger.Log;
+import setup.utilities.ImplicitWait;
 
 import java.time.Duration;
 import java.util.Optional;
@@ -14,6 +18,7 @@ public final class WebDriverThread {
 
 	private WebDriver driver;
 	private DriverType selectedDriverType;
+	private LaunchProfile launchProfile;
 	public static final DriverType defaultDriverType = DriverType.CHROME;
 	private final Optional<String> browser = Optional.ofNullable(System.getProperty("browser"));
 	private final String operatingSystem = System.getProperty("os.name").toUpperCase();
@@ -31,6 +36,23 @@ public final class WebDriverThread {
 		}
 	}
 
+	/**
+	 * Check whether the browser has been launched and is still responding.
+	 *
+	 * @return true if alive, false otherwise
+	 */
+	public boolean isAlive() {
+		if (driver == null) {
+			return false;
+		}
+		try {
+			driver.getWindowHandle();
+			return true;
+		} catch (WebDriverException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * Get the web driver instance.
 	 *
@@ -44,6 +66,27 @@ public final class WebDriverThread {
 		return driver;
 	}
 
+	/**
+	 * Record the memory of the open page against the launch profile of the browser, without launching it.
+	 */
+	public void recordMemory() {
+		if (driver != null) {
+			launchProfile.recordMemory(driver);
+		}
+	}
+
+	/**
+	 * Get the session id of the browser, without launching it.
+	 *
+	 * @return session id, or null if the browser has not been launched
+	 */
+	public String getSessionId() {
+		if (driver instanceof RemoteWebDriver && ((RemoteWebDriver) driver).getSessionId() != null) {
+			return ((RemoteWebDriver) driver).getSessionId().toString();
+		}
+		return null;
+	}
+
 	/**
 	 * Get the browser's driver type to use.
 	 *
@@ -64,9 +107,22 @@ public final class WebDriverThread {
 	 *
 	 */
 	private void instantiateWebDriver() {
-		Log.info("[Device Config] Operating System: '" + operatingSystem + "', System Architecture: '" + systemArchitecture + "', Browser Selection: '" + selectedDriverType +"'");
-		driver = selectedDriverType.getWebDriverObject();
-		driver.manage().window().maximize();
+		launchProfile = LaunchProfile.current();
+		Log.info("[Device Config] Operating System: '" + operatingSystem + "', System Architecture: '" + systemArchitecture + "', Browser Selection: '" + selectedDriverType +"', Launch Profile: '" + launchProfile + "'");
+		long start = System.nanoTime();
+		try {
+			driver = selectedDriverType.getWebDriverObject();
+		} catch (SessionNotCreatedException e) {
+			// The cached driver may no longer match the installed browser after an update
+			Log.warn("Unable to start '" + selectedDriverType + "' with the cached driver, resolving it again...");
+			DriverBinaryCache.invalidate(selectedDriverType);
+			driver = selectedDriverType.getWebDriverObject();
+		}
+		if (!launchProfile.isHeadless()) {
+			driver.manage().window().maximize();
+		}
+		ImplicitWait.instrumentNewDocuments(driver);
+		launchProfile.recordLaunch(selectedDriverType, (System.nanoTime() - start) / 1000000);
 	}
 
 }
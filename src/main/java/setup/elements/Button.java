@@ -1,10 +1,12 @@
 package setup.elements;
 
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
+import static setup.utilities.StepProfiler.Category.ACTION;
 
 import setup.utilities.ImplicitWait;
 import setup.base.BasePage;
 import setup.logger.Log;
+import setup.utilities.StepProfiler;
 import org.openqa.selenium.By;
 
 import java.time.Duration;
@@ -29,18 +31,26 @@ public final class Button extends Element {
 	 * Click on the button.
 	 */
 	public void click() {
-		ImplicitWait.waitForLoadingInvisibility();
-		ImplicitWait.isElementPresent(locator);
-		wait.until(elementToBeClickable(locator)).click();
-		ImplicitWait.waitForLoadingInvisibility();
-		Log.info("Clicked [" + description + "] button");
+		StepProfiler.time(ACTION, "Click", description, () -> {
+			if (!ScriptActions.click(locator, description)) {
+				ImplicitWait.waitForLoadingInvisibility();
+				ImplicitWait.isElementPresent(locator);
+				wait.until(elementToBeClickable(locator)).click();
+				ImplicitWait.waitForLoadingInvisibility();
+			}
+			Log.info("Clicked [" + description + "] button");
+		});
 	}
 	public void click(Duration timeout) {
-		ImplicitWait.waitForLoadingInvisibility();
-		ImplicitWait.isElementPresent(locator);
-		wait.until(elementToBeClickable(locator)).click();
-		ImplicitWait.waitForLoadingInvisibility(timeout);
-		Log.info("Clicked [" + description + "] button");
+		StepProfiler.time(ACTION, "Click", description, () -> {
+			if (!ScriptActions.click(locator, description, timeout)) {
+				ImplicitWait.waitForLoadingInvisibility();
+				ImplicitWait.isElementPresent(locator);
+				wait.until(elementToBeClickable(locator)).click();
+				ImplicitWait.waitForLoadingInvisibility(timeout);
+			}
+			Log.info("Clicked [" + description + "] button");
+		});
 	}
 
 	/**
@@ -51,13 +61,17 @@ public final class Button extends Element {
 	 * @return the pageClass object
 	 */
 	public <T extends BasePage> T click(Class<T> pageClass) {
-		Log.info("Click [" + description + "] button");
-		try {
-			wait.until(elementToBeClickable(locator)).click();
-			return pageClass.newInstance();
-		} catch (IllegalAccessException | InstantiationException e) {
-			Log.error("Unable to create instance of the page class", e);
-			throw new RuntimeException("Unable to create instance of the page class", e);
-		}
+		return StepProfiler.time(ACTION, "Click", description, () -> {
+			Log.info("Click [" + description + "] button");
+			try {
+				if (!ScriptActions.click(locator, description)) {
+					wait.until(elementToBeClickable(locator)).click();
+				}
+				return pageClass.newInstance();
+			} catch (IllegalAccessException | InstantiationException e) {
+				Log.error("Unable to create instance of the page class", e);
+				throw new RuntimeException("Unable to create instance of the page class", e);
+			}
+		});
 	}
 }
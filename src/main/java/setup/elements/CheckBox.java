@@ -1,14 +1,15 @@
 package setup.elements;
 
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
-import static org.openqa.selenium.support.ui.ExpectedConditions.visibilityOfElementLocated;
 import static setup.config.DriverFactory.getDriver;
+import static setup.utilities.StepProfiler.Category.ACTION;
 
 import org.openqa.selenium.interactions.Actions;
 import setup.logger.Log;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
 import setup.utilities.ImplicitWait;
+import setup.utilities.StepProfiler;
 
 import java.time.Duration;
 
@@ -30,28 +31,32 @@ public final class CheckBox extends Element {
      * Check the checkbox.
      */
     public void check() {
-        WebElement element = wait.until(elementToBeClickable(locator));
-        if (element.isSelected()) {
-            Log.info("Checkbox [" + description + "] is already checked");
-        } else {
-            element.click();
-            Log.info("Checked [" + description + "] checkbox");
-        }
-        ImplicitWait.waitForLoadingInvisibility();
+        StepProfiler.time(ACTION, "Check", description, () -> {
+            WebElement element = wait.until(elementToBeClickable(locator));
+            if (element.isSelected()) {
+                Log.info("Checkbox [" + description + "] is already checked");
+            } else {
+                element.click();
+                Log.info("Checked [" + description + "] checkbox");
+            }
+            ImplicitWait.waitForLoadingInvisibility();
+        });
     }
 
     /**
      * Un-check the checkbox.
      */
     public void uncheck() {
-        WebElement element = wait.until(elementToBeClickable(locator));
-        if (element.isSelected()) {
-            element.click();
-            Log.info("Unchecked [" + description + "] checkbox");
-        } else {
-            Log.info("Checkbox [" + description + "] is already unchecked");
-        }
-        ImplicitWait.waitForLoadingInvisibility();
+        StepProfiler.time(ACTION, "Uncheck", description, () -> {
+            WebElement element = wait.until(elementToBeClickable(locator));
+            if (element.isSelected()) {
+                element.click();
+                Log.info("Unchecked [" + description + "] checkbox");
+            } else {
+                Log.info("Checkbox [" + description + "] is already unchecked");
+            }
+            ImplicitWait.waitForLoadingInvisibility();
+        });
     }
 
     /**
@@ -60,7 +65,7 @@ public final class CheckBox extends Element {
      */
     public boolean isChecked() {
         ImplicitWait.waitForLoadingInvisibility();
-        WebElement element = wait.until(visibilityOfElementLocated(locator));
+        WebElement element = wait.untilVisible(locator);
         boolean state =  element.isSelected();
         Log.info("Is [" + description + "] checkbox checked? = " + state);
         return state;
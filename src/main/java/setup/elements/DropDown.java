@@ -2,9 +2,10 @@ package setup.elements;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import setup.logger.Log;
+import setup.utilities.ExplicitWait;
 import setup.utilities.ImplicitWait;
+import setup.utilities.StepProfiler;
 
 import java.time.Duration;
 import java.util.ArrayList;
@@ -13,6 +14,7 @@ import java.util.List;
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
 import static org.openqa.selenium.support.ui.ExpectedConditions.visibilityOfAllElementsLocatedBy;
 import static setup.config.DriverFactory.getDriver;
+import static setup.utilities.StepProfiler.Category.ACTION;
 
 /**
  * This Class is used to handle <b>Drop Down</b>.
@@ -35,16 +37,18 @@ public final class DropDown extends Element {
      * @param index the index to be selected
      */
     public void selectByIndex(int index) {
-        WebElement element = wait.until(elementToBeClickable(locator));
-        element.click();
-        Log.info("Clicked [" + description + "] drop down");
+        StepProfiler.time(ACTION, "Select", description, () -> {
+            WebElement element = wait.until(elementToBeClickable(locator));
+            element.click();
+            Log.info("Clicked [" + description + "] drop down");
 
-        //Special dropdown option selection due to element is not an actual select tag
-        String locator = "div.ListView-ListViewDefaultStyle-item";
-        List<WebElement> elements = getDriver().findElements(By.cssSelector(locator));
-        WebElement option = wait.until(elementToBeClickable(elements.get(index)));
-        option.click();
-        Log.info("Selected option index [" + index + "] from the [" + description + "] drop down");
+            //Special dropdown option selection due to element is not an actual select tag
+            String locator = "div.ListView-ListViewDefaultStyle-item";
+            List<WebElement> elements = getDriver().findElements(By.cssSelector(locator));
+            WebElement option = wait.until(elementToBeClickable(elements.get(index)));
+            option.click();
+            Log.info("Selected option index [" + index + "] from the [" + description + "] drop down");
+        });
     }
 
     /**
@@ -53,19 +57,21 @@ public final class DropDown extends Element {
      * @param visibleText the text to be selected
      */
     public void selectByVisibleText(String visibleText) {
-        ImplicitWait.waitForPageLoad();
-        WebElement element = wait.until(elementToBeClickable(locator));
-        element.click();
-        Log.info("Clicked [" + description + "] drop down");
+        StepProfiler.time(ACTION, "Select", description, () -> {
+            ImplicitWait.waitForPageLoad();
+            WebElement element = wait.until(elementToBeClickable(locator));
+            element.click();
+            Log.info("Clicked [" + description + "] drop down");
 
-        //Special dropdown option selection due to element is not an actual select tag
-        String patternItemByTextLocator = "//*[contains(@class, 'ListView-ListViewDefaultStyle-item') and text()='<TEXT>']";
-        String xpath = patternItemByTextLocator.replace("<TEXT>", visibleText);
-        WebElement option = getDriver().findElement(By.xpath(xpath));
-        wait.until(elementToBeClickable(option));
-        option.click();
-        ImplicitWait.waitForLoadingInvisibility();
-        Log.info("Selected option text [" + visibleText + "] from the [" + description + "] drop down");
+            //Special dropdown option selection due to element is not an actual select tag
+            String patternItemByTextLocator = "//*[contains(@class, 'ListView-ListViewDefaultStyle-item') and text()='<TEXT>']";
+            String xpath = patternItemByTextLocator.replace("<TEXT>", visibleText);
+            WebElement option = getDriver().findElement(By.xpath(xpath));
+            wait.until(elementToBeClickable(option));
+            option.click();
+            ImplicitWait.waitForLoadingInvisibility();
+            Log.info("Selected option text [" + visibleText + "] from the [" + description + "] drop down");
+        });
     }
 
     /**
@@ -101,7 +107,7 @@ public final class DropDown extends Element {
 
     public List<String> getAllOptions() {
         Log.info("Get all the options from the [" + description + "] drop down");
-        WebDriverWait wait = new WebDriverWait(getDriver(), Duration.ofSeconds(15));
+        ExplicitWait wait = new ExplicitWait(Duration.ofSeconds(15));
         WebElement element = wait.until(elementToBeClickable(locator));
         element.click();
         Log.info("Clicked [" + description + "] drop down");
@@ -2,21 +2,27 @@ package setup.elements;
 
 import static java.util.stream.Collectors.joining;
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
-import static org.openqa.selenium.support.ui.ExpectedConditions.invisibilityOfElementLocated;
-import static org.openqa.selenium.support.ui.ExpectedConditions.visibilityOfElementLocated;
 import static setup.config.DriverFactory.getDriver;
+import static setup.utilities.StepProfiler.Category.ACTION;
+import static setup.utilities.StepProfiler.Category.SCREENSHOT;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
 
 import org.openqa.selenium.*;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import setup.utilities.ImplicitWait;
 import setup.logger.Log;
 import setup.utilities.ExplicitWait;
+import setup.utilities.StepProfiler;
+import setup.utilities.StepProfiler.Category;
+import setup.utilities.VisualDiff;
 import org.openqa.selenium.interactions.Actions;
 
 /**
@@ -25,9 +31,12 @@ import org.openqa.selenium.interactions.Actions;
  */
 public class Element {
 
+	private static final Map<WebDriver, Long> navigations = Collections.synchronizedMap(new WeakHashMap<>());
+
 	protected final String description;
 	protected final By locator;
 	protected final ExplicitWait wait;
+	private final Map<WebDriver, Handle> handles = Collections.synchronizedMap(new WeakHashMap<>());
 
 	/**
 	 * To create a generic element.
@@ -59,14 +68,107 @@ public class Element {
 		return locator;
 	}
 
+	/**
+	 * Forget the web elements cached for the current thread's driver, e.g. after a navigation.
+	 */
+	public static void invalidateHandles() {
+		navigations.merge(getDriver(), 1L, Long::sum);
+	}
+
+	/**
+	 * Get the number of navigations done by the current thread's driver, so that other caches of page state can tell
+	 * when they are out of date.
+	 * 
+	 * @return navigation count
+	 */
+	public static long currentNavigation() {
+		return navigations.getOrDefault(getDriver(), 0L);
+	}
+
+	/**
+	 * Forget this element's web element cached for the current thread's driver, so the next read locates it again.
+	 */
+	public void refresh() {
+		handles.remove(getDriver());
+	}
+
+	/**
+	 * Get the web element cached for the current thread's driver if it is visible, otherwise wait for the element to
+	 * become visible and cache it, as when nothing is cached since the last navigation.
+	 * 
+	 * @return web element
+	 */
+	protected WebElement resolve() {
+		WebDriver driver = getDriver();
+		long navigation = navigations.getOrDefault(driver, 0L);
+		Handle handle = handles.get(driver);
+		if (handle != null && handle.navigation == navigation && handle.element.isDisplayed()) {
+			return handle.element;
+		}
+		WebElement element = wait.untilVisible(locator);
+		handles.put(driver, new Handle(element, navigation));
+		return element;
+	}
+
+	/**
+	 * Read from the cached web element, locating it again once if it has gone stale.
+	 * 
+	 * @param <R>    the output to return
+	 * @param reader read to do on the web element
+	 * @return output
+	 */
+	protected <R> R read(Function<WebElement, R> reader) {
+		return read(ACTION, "Read", reader);
+	}
+
+	/**
+	 * Read from the cached web element as a profiled step, locating it again once if it has gone stale.
+	 * 
+	 * @param <R>      the output to return
+	 * @param category kind of the step
+	 * @param action   name of the step
+	 * @param reader   read to do on the web element
+	 * @return output
+	 */
+	private <R> R read(Category category, String action, Function<WebElement, R> reader) {
+		return StepProfiler.time(category, action, description, () -> {
+			try {
+				return reader.apply(resolve());
+			} catch (StaleElementReferenceException e) {
+				refresh();
+				return reader.apply(resolve());
+			}
+		});
+	}
+
+	/**
+	 * Take a screenshot of the element only.
+	 * 
+	 * @return screenshot as PNG bytes
+	 */
+	public byte[] takeScreenShot() {
+		Log.info("Take a screenshot of the [{}] element", description);
+		return read(SCREENSHOT, "Screenshot", element -> element.getScreenshotAs(OutputType.BYTES));
+	}
+
+	/**
+	 * Compare a screenshot of the element with its visual baseline, recording the baseline if there is none yet.
+	 * 
+	 * @param baseline baseline name
+	 * @return the comparison result
+	 */
+	public VisualDiff.Result compareWithBaseline(String baseline) {
+		return VisualDiff.compareWithBaseline(baseline, takeScreenShot());
+	}
+
 	/**
 	 * To provide the selenium web element.
 	 * 
 	 * @return web element
 	 */
 	public WebElement getWebElement() {
-		Log.info("Get the [" + description + "] web element");
-		return wait.until(visibilityOfElementLocated(locator));
+		Log.info("Get the [{}] web element", description);
+		return read(element -> element);
 	}
 
 	/**
@@ -75,8 +177,8 @@ public class Element {
 	 * @return the text.
 	 */
 	public String getText() {
-		String text = wait.until(visibilityOfElementLocated(locator)).getText();
-		Log.info("Text from the [" + description + "] element = " + text);
+		String text = read(WebElement::getText);
+		Log.info("Text from the [{}] element = {}", description, text);
 		return text;
 	}
 
@@ -86,8 +188,8 @@ public class Element {
 	 * @return value of the attribute "value"
 	 */
 	public String getAttributeValue() {
-		String value = wait.until(visibilityOfElementLocated(locator)).getAttribute("value");
-		Log.info("Value of the attribute [value] from [" + description + "] element = " + value);
+		String value = read(element -> element.getAttribute("value"));
+		Log.info("Value of the attribute [value] from [{}] element = {}", description, value);
 		return value;
 	}
 
@@ -98,8 +200,8 @@ public class Element {
 	 * @return value of the attribute
 	 */
 	public String getAttributeValue(String attribute) {
-		String value = wait.until(visibilityOfElementLocated(locator)).getAttribute(attribute);
-		Log.info("Value of the attribute [" + attribute + "] from [" + description + "] element = " + value);
+		String value = read(element -> element.getAttribute(attribute));
+		Log.info("Value of the attribute [{}] from [{}] element = {}", attribute, description, value);
 		return value;
 	}
 
@@ -110,8 +212,8 @@ public class Element {
 	 * @return value of the CSS property
 	 */
 	public String getCssPropertyValue(String property) {
-		String value = wait.until(visibilityOfElementLocated(locator)).getCssValue(property);
-		Log.info("Value of the CSS property [" + property + "] from [" + description + "] element = " + value);
+		String value = read(element -> element.getCssValue(property));
+		Log.info("Value of the CSS property [{}] from [{}] element = {}", property, description, value);
 		return value;
 	}
 
@@ -123,12 +225,12 @@ public class Element {
 	public boolean isVisible() {
 		boolean state;
 		try {
-			state = wait.until(visibilityOfElementLocated(locator)).isDisplayed();
+			state = wait.untilVisible(locator).isDisplayed();
 		} catch (TimeoutException e) {
 			state = false;
 		}
 
-		Log.info("Is [" + description + "] element visible? = " + state);
+		Log.info("Is [{}] element visible? = {}", description, state);
 		return state;
 	}
 
@@ -139,14 +241,14 @@ public class Element {
 	 */
 	public boolean isVisible(Duration waitTime) {
 		boolean state;
-		WebDriverWait wait = new WebDriverWait(getDriver(),waitTime);
+		ExplicitWait wait = new ExplicitWait(waitTime);
 		try {
-			state = wait.until(visibilityOfElementLocated(locator)).isDisplayed();
+			state = wait.untilVisible(locator).isDisplayed();
 		} catch (TimeoutException e) {
 			state = false;
 		}
 
-		Log.info("Is [" + description + "] element visible? = " + state);
+		Log.info("Is [{}] element visible? = {}", description, state);
 		return state;
 	}
 
@@ -158,12 +260,12 @@ public class Element {
 	public boolean isSelected() {
 		boolean state;
 		try {
-			state = wait.until(visibilityOfElementLocated(locator)).isSelected();
+			state = read(WebElement::isSelected);
 		} catch (TimeoutException e) {
 			state = false;
 		}
 
-		Log.info("Is [" + description + "] element selected? = " + state);
+		Log.info("Is [{}] element selected? = {}", description, state);
 		return state;
 	}
 
@@ -175,12 +277,12 @@ public class Element {
 	public boolean isInvisible() {
 		boolean state;
 		try {
-			state = wait.until(invisibilityOfElementLocated(locator));
+			state = wait.untilInvisible(locator);
 		} catch (TimeoutException e) {
 			state = false;
 		}
 
-		Log.info("Is [" + description + "] element invisible? = " + state);
+		Log.info("Is [{}] element invisible? = {}", description, state);
 		return state;
 	}
 
@@ -192,12 +294,12 @@ public class Element {
 	public boolean isEnabled() {
 		boolean state;
 		try {
-			state = wait.until(driver -> driver.findElement(locator).isEnabled());
+			state = wait.until(driver -> driver.findElement(locator).isEnabled(), "enabled " + locator);
 		} catch (TimeoutException e) {
 			state = false;
 		}
 
-		Log.info("Is [" + description + "] element enabled? = " + state);
+		Log.info("Is [{}] element enabled? = {}", description, state);
 		return state;
 	}
 
@@ -209,12 +311,12 @@ public class Element {
 	public boolean isDisabled() {
 		boolean state;
 		try {
-			state = wait.until(driver -> !driver.findElement(locator).isEnabled());
+			state = wait.until(driver -> !driver.findElement(locator).isEnabled(), "disabled " + locator);
 		} catch (TimeoutException e) {
 			state = false;
 		}
 
-		Log.info("Is [" + description + "] element disabled? = " + state);
+		Log.info("Is [{}] element disabled? = {}", description, state);
 		return state;
 	}
 
@@ -222,18 +324,22 @@ public class Element {
 	 * Move the mouse pointer to the element.
 	 */
 	public void moveToElement() {
-		WebElement element = wait.until(elementToBeClickable(locator));
-		new Actions(getDriver()).moveToElement(element).perform();
-		Log.info("Moved mouse to [" + description + "] element");
+		StepProfiler.time(ACTION, "Move to", description, () -> {
+			WebElement element = wait.until(elementToBeClickable(locator));
+			new Actions(getDriver()).moveToElement(element).perform();
+			Log.info("Moved mouse to [{}] element", description);
+		});
 	}
 
 	/**
 	 * Right click on an element.
 	 */
 	public void rightClick() {
-		WebElement element = wait.until(elementToBeClickable(locator));
-		new Actions(getDriver()).contextClick(element).perform();
-		Log.info("Right clicked [" + description + "] element");
+		StepProfiler.time(ACTION, "Right click", description, () -> {
+			WebElement element = wait.until(elementToBeClickable(locator));
+			new Actions(getDriver()).contextClick(element).perform();
+			Log.info("Right clicked [{}] element", description);
+		});
 	}
 
 	/**
@@ -242,10 +348,12 @@ public class Element {
 	 * @param destination element to drop on
 	 */
 	public void dragTo(Element destination) {
-		WebElement source = wait.until(elementToBeClickable(locator));
-		WebElement target = wait.until(elementToBeClickable(destination.locator));
-		new Actions(getDriver()).dragAndDrop(source, target).perform();
-		Log.info("Dragged [" + description + "] element to [" + destination.description + "] element");
+		StepProfiler.time(ACTION, "Drag", description, () -> {
+			WebElement source = wait.until(elementToBeClickable(locator));
+			WebElement target = wait.until(elementToBeClickable(destination.locator));
+			new Actions(getDriver()).dragAndDrop(source, target).perform();
+			Log.info("Dragged [{}] element to [{}] element", description, destination.description);
+		});
 	}
 
 	/**
@@ -254,46 +362,56 @@ public class Element {
 	 * @param destination element to drop on
 	 */
 	public void dragToUsingJs(Element destination) {
-		WebElement source = wait.until(elementToBeClickable(locator));
-		WebElement target = wait.until(elementToBeClickable(destination.locator));
-		InputStream in = getClass().getResourceAsStream("/dragdrop.js");
-		InputStreamReader isr = new InputStreamReader(in, Charset.defaultCharset());
-		String dragDropJs = new BufferedReader(isr).lines().collect(joining("\n"));
-		JavascriptExecutor js = (JavascriptExecutor) getDriver();
-		js.executeScript(dragDropJs, source, target);
-		Log.info("Dragged [" + description + "] element to [" + destination.description + "] element");
+		StepProfiler.time(ACTION, "Drag", description, () -> {
+			WebElement source = wait.until(elementToBeClickable(locator));
+			WebElement target = wait.until(elementToBeClickable(destination.locator));
+			InputStream in = getClass().getResourceAsStream("/dragdrop.js");
+			InputStreamReader isr = new InputStreamReader(in, Charset.defaultCharset());
+			String dragDropJs = new BufferedReader(isr).lines().collect(joining("\n"));
+			JavascriptExecutor js = (JavascriptExecutor) getDriver();
+			js.executeScript(dragDropJs, source, target);
+			Log.info("Dragged [{}] element to [{}] element", description, destination.description);
+		});
 	}
 
 	/**
 	 * Click on the Element.
 	 */
 	public void click() {
-		ImplicitWait.isElementPresent(locator);
-		wait.until(elementToBeClickable(locator)).click();
-		ImplicitWait.waitForLoadingInvisibility();
-		Log.info("Clicked [" + description + "] element");
+		StepProfiler.time(ACTION, "Click", description, () -> {
+			if (!ScriptActions.click(locator, description)) {
+				ImplicitWait.isElementPresent(locator);
+				wait.until(elementToBeClickable(locator)).click();
+				ImplicitWait.waitForLoadingInvisibility();
+			}
+			Log.info("Clicked [{}] element", description);
+		});
 	}
 
 	/**
 	 * Double Click on the Element.
 	 */
 	public void doubleClick() {
-		WebElement element = wait.until(elementToBeClickable(locator));
-		new Actions(getDriver()).doubleClick(element).perform();
-		ImplicitWait.waitForLoadingInvisibility();
-		Log.info("Double clicked [" + description + "] element");
+		StepProfiler.time(ACTION, "Double click", description, () -> {
+			WebElement element = wait.until(elementToBeClickable(locator));
+			new Actions(getDriver()).doubleClick(element).perform();
+			ImplicitWait.waitForLoadingInvisibility();
+			Log.info("Double clicked [{}] element", description);
+		});
 	}
 
 	/**
 	 * Double Click on the Element via JS
 	 */
 	public void doubleClickViaJS() {
-		WebElement element = wait.until(elementToBeClickable(locator));
+		StepProfiler.time(ACTION, "Double click", description, () -> {
+			WebElement element = wait.until(elementToBeClickable(locator));
 
-		JavascriptExecutor js = (JavascriptExecutor) getDriver();
-		js.executeScript("var evt = document.createEvent('MouseEvents'); evt.initMouseEvent('dblclick', true, true, window, 0, 0, 0, 0, 0, false, false, false, false, 0, null);arguments[0].dispatchEvent(evt);", element);
+			JavascriptExecutor js = (JavascriptExecutor) getDriver();
+			js.executeScript("var evt = document.createEvent('MouseEvents'); evt.initMouseEvent('dblclick', true, true, window, 0, 0, 0, 0, 0, false, false, false, false, 0, null);arguments[0].dispatchEvent(evt);", element);
 
-		Log.info("Double clicked [" + description + "] element");
+			Log.info("Double clicked [{}] element", description);
+		});
 	}
 
 	/**
@@ -302,20 +420,39 @@ public class Element {
 	 * @param key text to enter
 	 */
 	public void enterText(Keys key) {
-		WebElement element = wait.until(elementToBeClickable(locator));
-		element.sendKeys(key);
+		StepProfiler.time(ACTION, "Enter text", description, () -> {
+			WebElement element = wait.until(elementToBeClickable(locator));
+			element.sendKeys(key);
+		});
 	}
 
 	/**
 	 * Scroll Into View of Element.
 	 */
 	public void scrollIntoView() {
-		WebElement element = getDriver().findElement(locator);
+		StepProfiler.time(ACTION, "Scroll into view", description, () -> {
+			WebElement element = getDriver().findElement(locator);
+
+			JavascriptExecutor js = (JavascriptExecutor) getDriver();
+			js.executeScript("arguments[0].scrollIntoView();", element);
+
+			Log.info("Scrolled into view of [{}] element", description);
+		});
+	}
+
+	/**
+	 * A web element located for a driver, and the navigation it was located after.
+	 */
+	private static final class Handle {
+
+		private final WebElement element;
+		private final long navigation;
 
-		JavascriptExecutor js = (JavascriptExecutor) getDriver();
-		js.executeScript("arguments[0].scrollIntoView();", element);
+		private Handle(WebElement element, long navigation) {
+			this.element = element;
+			this.navigation = navigation;
+		}
 
-		Log.info("Scrolled into view of [" + description + "] element");
 	}
 
 }
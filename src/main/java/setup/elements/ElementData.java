@@ -0,0 +1,77 @@
+package setup.elements;
+
+import org.openqa.selenium.Rectangle;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * To hold the text, attributes, visibility and bounding box of an element read together with the other matches of
+ * <b>Elements</b>.
+ *
+ */
+public final class ElementData {
+
+	private final String text;
+	private final boolean visible;
+	private final Rectangle rect;
+	private final Map<String, String> attributes;
+
+	/**
+	 * This constructor is used to create the element data.
+	 * 
+	 * @param text       visible text
+	 * @param visible    whether the element is visible
+	 * @param rect       bounding box relative to the page
+	 * @param attributes values of the requested attributes
+	 */
+	ElementData(String text, boolean visible, Rectangle rect, Map<String, String> attributes) {
+		this.text = text;
+		this.visible = visible;
+		this.rect = rect;
+		this.attributes = Collections.unmodifiableMap(attributes);
+	}
+
+	/**
+	 * Get the visible text of the element.
+	 * 
+	 * @return the text, empty if the element is not visible
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Check whether the element is visible.
+	 * 
+	 * @return true if visible, false otherwise
+	 */
+	public boolean isVisible() {
+		return visible;
+	}
+
+	/**
+	 * Get the bounding box of the element relative to the page.
+	 * 
+	 * @return location and size of the element
+	 */
+	public Rectangle getRect() {
+		return rect;
+	}
+
+	/**
+	 * Get the value of a requested attribute.
+	 * 
+	 * @param attribute attribute whose value is needed
+	 * @return value of the attribute, or null if it is not set or was not requested
+	 */
+	public String getAttributeValue(String attribute) {
+		return attributes.get(attribute);
+	}
+
+	@Override
+	public String toString() {
+		return "{text=" + text + ", visible=" + visible + ", attributes=" + attributes + "}";
+	}
+
+}
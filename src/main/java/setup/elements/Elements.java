@@ -1,13 +1,20 @@
 package setup.elements;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import setup.logger.Log;
 import setup.utilities.ExplicitWait;
+import setup.utilities.PageScripts;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 
+import static java.util.stream.Collectors.toList;
 import static org.openqa.selenium.support.ui.ExpectedConditions.*;
 
 /**
@@ -42,6 +49,30 @@ public final class Elements {
 		return wait.until(visibilityOfAllElementsLocatedBy(locator));
 	}
 
+	/**
+	 * Read the text, visibility, bounding box and the mentioned attributes of all the elements in one script call,
+	 * once they are all visible.
+	 *
+	 * @param attributes attributes whose values are needed
+	 * @return list of element data
+	 */
+	public List<ElementData> readVisibleElements(String... attributes) {
+		Log.info("Read the visible [" + description + "] elements");
+		return wait.until(driver -> read(driver, true, attributes), "visible elements " + locator);
+	}
+
+	/**
+	 * Read the text, visibility, bounding box and the mentioned attributes of all the elements in one script call,
+	 * even if they are not visible on the current screen.
+	 *
+	 * @param attributes attributes whose values are needed
+	 * @return list of element data
+	 */
+	public List<ElementData> readPresentElements(String... attributes) {
+		Log.info("Read the present [" + description + "] elements");
+		return wait.until(driver -> read(driver, false, attributes), "present elements " + locator);
+	}
+
 	/**
 	 * Get the text from all the text elements with the mentioned locator.
 	 *
@@ -49,14 +80,8 @@ public final class Elements {
 	 */
 	public List<String> getTextFromAllElements() {
 		Log.info("Get the list of text from [" + description + "]");
-		String[] elements = wait.until(visibilityOfAllElementsLocatedBy(locator)).stream().map(WebElement::getText)
-				.toArray(String[]::new);
-
-		List<String> itemsText = new ArrayList<>();
-		for (String item : elements) {
-			itemsText.add(item);
-			Log.info("Items on the list: "+ item);
-		}
+		List<String> itemsText = readVisibleElements().stream().map(ElementData::getText).collect(toList());
+		itemsText.forEach(item -> Log.info("Items on the list: " + item));
 		return itemsText;
 	}
 
@@ -67,14 +92,9 @@ public final class Elements {
 	 */
 	public List<String> getTextFromVisibleElementsViaAttribute() {
 		Log.info("Get the list of text from [" + description + "]");
-		List<WebElement> elements = wait.until(visibilityOfAllElementsLocatedBy(locator));
-
-		List<String> itemsText = new ArrayList<>();
-		for (WebElement item : elements) {
-			String itemValue = item.getAttribute("value");
-			itemsText.add(itemValue);
-			Log.info("Items on the list: "+ itemValue);
-		}
+		List<String> itemsText = readVisibleElements("value").stream().map(item -> item.getAttributeValue("value"))
+				.collect(toList());
+		itemsText.forEach(item -> Log.info("Items on the list: " + item));
 		return itemsText;
 	}
 
@@ -85,14 +105,9 @@ public final class Elements {
 	 */
 	public List<String> getTextFromAllElementsViaAttribute() {
 		Log.info("Get the list of text from [" + description + "]");
-		List<WebElement> elements = wait.until(presenceOfAllElementsLocatedBy(locator));
-
-		List<String> itemsText = new ArrayList<>();
-		for (WebElement item : elements) {
-			String itemValue = item.getAttribute("value");
-			itemsText.add(itemValue);
-			Log.info("Items on the list: "+ itemValue);
-		}
+		List<String> itemsText = readPresentElements("value").stream().map(item -> item.getAttributeValue("value"))
+				.collect(toList());
+		itemsText.forEach(item -> Log.info("Items on the list: " + item));
 		return itemsText;
 	}
 
@@ -102,9 +117,40 @@ public final class Elements {
 	 * @return number of elements
 	 */
 	public int getNumberOfElements() {
-		int size = wait.until(visibilityOfAllElementsLocatedBy(locator)).size();
+		int size = readVisibleElements().size();
 		Log.info("Number of [" + description + "] web elements = " + size);
 		return size;
 	}
 
+	/**
+	 * Read all the elements with one script call. Locators which cannot be run in the page are found with web driver
+	 * first and the found elements are passed to the script.
+	 *
+	 * @param driver     web driver instance
+	 * @param allVisible true to wait until every element is visible, false to only wait until one is present
+	 * @param attributes attributes whose values are needed
+	 * @return list of element data, or null if the elements are not ready yet
+	 */
+	@SuppressWarnings("unchecked")
+	private List<ElementData> read(WebDriver driver, boolean allVisible, String[] attributes) {
+		Object[] target = PageScripts.locatorArguments(locator);
+		List<WebElement> found = target == null ? driver.findElements(locator) : null;
+		List<Map<String, Object>> data = (List<Map<String, Object>>) ((JavascriptExecutor) driver).executeScript(
+				PageScripts.get("elementdata.js"), target == null ? null : target[0],
+				target == null ? null : target[1], found, Arrays.asList(attributes), allVisible);
+		if (data == null) {
+			return null;
+		}
+		return data.stream().map(item -> {
+			List<Number> rect = (List<Number>) item.get("rect");
+			Map<String, String> values = new HashMap<>();
+			((Map<String, Object>) item.get("attributes"))
+					.forEach((name, value) -> values.put(name, value == null ? null : String.valueOf(value)));
+			return new ElementData(String.valueOf(item.get("text")), Boolean.TRUE.equals(item.get("visible")),
+					new Rectangle(rect.get(0).intValue(), rect.get(1).intValue(), rect.get(3).intValue(),
+							rect.get(2).intValue()),
+					values);
+		}).collect(toList());
+	}
+
 }
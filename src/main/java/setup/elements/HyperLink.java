@@ -1,6 +1,7 @@
 package setup.elements;
 
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
+import static setup.utilities.StepProfiler.Category.ACTION;
 
 import java.io.File;
 import java.io.IOException;
@@ -13,6 +14,7 @@ import setup.utilities.FileDownloader;
 import setup.utilities.RequestType;
 import org.openqa.selenium.By;
 import setup.config.DriverFactory;
+import setup.utilities.StepProfiler;
 
 /**
  * This Class is used to handle <b>Hyperlink</b>.
@@ -34,8 +36,10 @@ public final class HyperLink extends Element {
 	 * Click on the hyper link.
 	 */
 	public void click() {
-		wait.until(elementToBeClickable(locator)).click();
-		Log.info("Clicked [" + description + "] link");
+		StepProfiler.time(ACTION, "Click", description, () -> {
+			wait.until(elementToBeClickable(locator)).click();
+			Log.info("Clicked [" + description + "] link");
+		});
 	}
 
 	/**
@@ -46,15 +50,17 @@ public final class HyperLink extends Element {
 	 * @return the pageClass object
 	 */
 	public <T extends BasePage> T click(Class<T> pageClass) {
-		Log.info("Click [" + description + "] link");
-		try {
-			wait.until(elementToBeClickable(locator)).click();
-			return pageClass.newInstance();
-		} catch (IllegalAccessException | InstantiationException e) {
-			Log.error("Unable to create instance of the page class [" + pageClass.getSimpleName() + "]", e);
-			throw new RuntimeException(
-					"Unable to create instance of the page class [" + pageClass.getSimpleName() + "]", e);
-		}
+		return StepProfiler.time(ACTION, "Click", description, () -> {
+			Log.info("Click [" + description + "] link");
+			try {
+				wait.until(elementToBeClickable(locator)).click();
+				return pageClass.newInstance();
+			} catch (IllegalAccessException | InstantiationException e) {
+				Log.error("Unable to create instance of the page class [" + pageClass.getSimpleName() + "]", e);
+				throw new RuntimeException(
+						"Unable to create instance of the page class [" + pageClass.getSimpleName() + "]", e);
+			}
+		});
 	}
 
 	/**
@@ -1,6 +1,7 @@
 package setup.elements;
 
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
+import static setup.utilities.StepProfiler.Category.ACTION;
 
 import java.io.IOException;
 import java.net.URI;
@@ -13,6 +14,7 @@ import setup.utilities.ImplicitWait;
 import setup.utilities.RequestType;
 import org.openqa.selenium.By;
 import setup.config.DriverFactory;
+import setup.utilities.StepProfiler;
 
 /**
  * This Class is used to handle <b>Image</b>.
@@ -34,9 +36,11 @@ public final class Image extends Element {
 	 * Click on the image.
 	 */
 	public void click() {
-		wait.until(elementToBeClickable(locator)).click();
-		ImplicitWait.waitForLoadingInvisibility();
-		Log.info("Clicked [" + description + "] image button");
+		StepProfiler.time(ACTION, "Click", description, () -> {
+			wait.until(elementToBeClickable(locator)).click();
+			ImplicitWait.waitForLoadingInvisibility();
+			Log.info("Clicked [" + description + "] image button");
+		});
 	}
 
 	/**
@@ -47,15 +51,17 @@ public final class Image extends Element {
 	 * @return the pageClass object
 	 */
 	public <T extends BasePage> T click(Class<T> pageClass) {
-		Log.info("Click [" + description + "] link");
-		try {
-			wait.until(elementToBeClickable(locator)).click();
-			return pageClass.newInstance();
-		} catch (IllegalAccessException | InstantiationException e) {
-			Log.error("Unable to create instance of the page class [" + pageClass.getSimpleName() + "]", e);
-			throw new RuntimeException(
-					"Unable to create instance of the page class [" + pageClass.getSimpleName() + "]", e);
-		}
+		return StepProfiler.time(ACTION, "Click", description, () -> {
+			Log.info("Click [" + description + "] link");
+			try {
+				wait.until(elementToBeClickable(locator)).click();
+				return pageClass.newInstance();
+			} catch (IllegalAccessException | InstantiationException e) {
+				Log.error("Unable to create instance of the page class [" + pageClass.getSimpleName() + "]", e);
+				throw new RuntimeException(
+						"Unable to create instance of the page class [" + pageClass.getSimpleName() + "]", e);
+			}
+		});
 	}
 
 	/**
@@ -0,0 +1,38 @@
+package setup.elements;
+
+import setup.logger.Log;
+import setup.utilities.Configuration;
+
+/**
+ * To handle how element actions are executed, selected with the <b>interactionMode</b> property.
+ *
+ */
+public enum InteractionMode {
+
+	/**
+	 * Every readiness check and action is a separate web driver command.
+	 */
+	NATIVE,
+
+	/**
+	 * Readiness checks, the action and the settle check run as one injected script per attempt.
+	 * Actions that need native input (keys, mouse moves, drag and drop) keep using web driver commands.
+	 */
+	SCRIPT;
+
+	/**
+	 * Get the interaction mode selected for this run.
+	 *
+	 * @return interaction mode
+	 */
+	public static InteractionMode current() {
+		String mode = Configuration.get("interactionMode", NATIVE.name());
+		try {
+			return valueOf(mode.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			Log.warn("Unknown interaction mode '" + mode + "', defaulting to '" + NATIVE + "'...");
+			return NATIVE;
+		}
+	}
+
+}
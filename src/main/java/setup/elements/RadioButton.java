@@ -1,8 +1,10 @@
 package setup.elements;
 
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
+import static setup.utilities.StepProfiler.Category.ACTION;
 
 import setup.logger.Log;
+import setup.utilities.StepProfiler;
 import org.openqa.selenium.By;
 
 /**
@@ -25,8 +27,10 @@ public final class RadioButton extends Element {
 	 * Click on the radio button.
 	 */
 	public void click() {
-		wait.until(elementToBeClickable(locator)).click();
-		Log.info("Clicked [" + description + "] radio button");
+		StepProfiler.time(ACTION, "Click", description, () -> {
+			wait.until(elementToBeClickable(locator)).click();
+			Log.info("Clicked [" + description + "] radio button");
+		});
 	}
 
 	/**
@@ -0,0 +1,113 @@
+package setup.elements;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import setup.logger.Log;
+import setup.utilities.Configuration;
+import setup.utilities.ImplicitWait;
+import setup.utilities.PageScripts;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+import static setup.config.DriverFactory.getDriver;
+import static setup.config.WebDriverThread.MAX_WAIT;
+
+/**
+ * To run element actions as one injected script per attempt when the interaction mode is <b>SCRIPT</b>.
+ *
+ */
+final class ScriptActions {
+
+	private static final long SETTLE_MILLIS = Configuration.getInt("settleTimeoutMillis", 5000);
+	private static final long RETRY_MILLIS = 50;
+	private static final Pattern PAGE_GONE = Pattern
+			.compile("unload|context was destroyed|frame (was )?detached|navigat", Pattern.CASE_INSENSITIVE);
+
+	private ScriptActions() {
+	}
+
+	/**
+	 * Wait until the element is visible, enabled, not covered and no loading indicator is shown, click it and wait
+	 * for the page to settle, all in one script call per attempt. The script reports its own errors before the click
+	 * as a <b>failed</b> state; a script error raised because the page was torn down, i.e. the click navigated away,
+	 * counts as clicked, so the element is never clicked twice. Any other script error, e.g. a content security policy
+	 * blocking the script, falls back to web driver commands.
+	 *
+	 * @param locator     locator of the element
+	 * @param description description of the element
+	 * @return true if clicked, false if the click has to be done with web driver commands instead
+	 */
+	static boolean click(By locator, String description) {
+		return click(locator, description, MAX_WAIT);
+	}
+
+	/**
+	 * Click the element as {@link #click(By, String)} does, waiting for a loading indicator shown after the click up
+	 * to the timeout.
+	 *
+	 * @param locator     locator of the element
+	 * @param description description of the element
+	 * @param timeout     maximum time to wait for the loading indicator to disappear after the click
+	 * @return true if clicked, false if the click has to be done with web driver commands instead
+	 */
+	static boolean click(By locator, String description, Duration timeout) {
+		Object[] target = PageScripts.locatorArguments(locator);
+		if (InteractionMode.current() != InteractionMode.SCRIPT || target == null) {
+			return false;
+		}
+		JavascriptExecutor js = (JavascriptExecutor) getDriver();
+		String script = PageScripts.get("actwhenready.js");
+		String loading = (String) PageScripts.locatorArguments(ImplicitWait.loadingBy)[1];
+		long deadline = System.nanoTime() + MAX_WAIT.toNanos();
+		String state;
+		do {
+			try {
+				state = String.valueOf(js.executeAsyncScript(script, target[0], target[1], loading, SETTLE_MILLIS));
+			} catch (UnsupportedCommandException e) {
+				Log.warn("Unable to click [" + description + "] with a script, falling back to web driver commands");
+				return false;
+			} catch (JavascriptException e) {
+				String message = String.valueOf(e.getRawMessage());
+				if (!PAGE_GONE.matcher(message).find()) {
+					Log.warn("Unable to click [" + description + "] with a script (" + message
+							+ "), falling back to web driver commands");
+					return false;
+				}
+				Log.info("[" + description + "] was clicked and the page changed before it settled: " + message);
+				state = "clicked";
+			}
+			if ("settled".equals(state)) {
+				return true;
+			}
+			if ("clicked".equals(state)) {
+				ImplicitWait.waitForLoadingInvisibility(timeout);
+				return true;
+			}
+			if (state.startsWith("failed")) {
+				Log.warn("Unable to click [" + description + "] with a script (" + state
+						+ "), falling back to web driver commands");
+				return false;
+			}
+			pause();
+		} while (System.nanoTime() < deadline);
+		throw new TimeoutException("Expected condition failed: waiting for [" + description
+				+ "] to be ready to click (tried for " + MAX_WAIT.getSeconds() + " second(s), last state: " + state + ")");
+	}
+
+	/**
+	 * Pause before the next attempt.
+	 */
+	private static void pause() {
+		try {
+			Thread.sleep(RETRY_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TimeoutException("Interrupted while waiting for the element to be ready", e);
+		}
+	}
+
+}
@@ -1,15 +1,18 @@
 package setup.elements;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebElement;
 import setup.logger.Log;
+import setup.utilities.PageScripts;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import static java.util.stream.Collectors.toList;
 import static org.openqa.selenium.By.tagName;
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
+import static setup.config.DriverFactory.getDriver;
 
 /**
  * This Class is used to handle <b>Table</b>.
@@ -39,6 +42,29 @@ public final class Table extends Element {
 		return headers;
 	}
 
+	/**
+	 * Get the headers and all the cells of the table (visible text, text content and input values) in one script
+	 * call, instead of a web driver command per cell.
+	 *
+	 * @return table data
+	 */
+	@SuppressWarnings("unchecked")
+	public TableData getTableSnapshot() {
+		Log.info("Get a snapshot of the [" + description + "] table");
+		WebElement table = wait.until(elementToBeClickable(locator));
+		Map<String, Object> snapshot = (Map<String, Object>) ((JavascriptExecutor) getDriver())
+				.executeScript(PageScripts.get("tabledata.js"), table);
+		List<String> headers = ((List<Object>) snapshot.get("headers")).stream().map(String::valueOf)
+				.collect(toList());
+		List<List<TableData.Cell>> rows = ((List<List<List<Object>>>) snapshot.get("rows")).stream()
+				.map(row -> row.stream()
+						.map(cell -> new TableData.Cell((String) cell.get(0), (String) cell.get(1), (String) cell.get(2)))
+						.collect(toList()))
+				.collect(toList());
+		Log.info("Total Rows: " + rows.size());
+		return new TableData(headers, rows);
+	}
+
 	/**
 	 * Get all the table data.
 	 *
@@ -46,8 +72,7 @@ public final class Table extends Element {
 	 */
 	public List<String> getTableData() {
 		Log.info("Get all the table data from the [" + description + "] table");
-		WebElement table = wait.until(elementToBeClickable(locator));
-		List<String> data = table.findElements(tagName("td")).stream().map(WebElement::getText).collect(toList());
+		List<String> data = getTableSnapshot().getTexts();
 
 		Log.info("Table Data {" + String.join(", ", data) + "}");
 		Log.info("Total Data: " + data.size());
@@ -61,11 +86,7 @@ public final class Table extends Element {
 	 */
 	public List<String> getTableDataByTextContent() {
 		Log.info("Get all the table data from the [" + description + "] table");
-		WebElement table = wait.until(elementToBeClickable(locator));
-		List<String> data = table.findElements(By.tagName("td"))
-				.stream()
-				.map(element -> element.getAttribute("textContent"))
-				.collect(Collectors.toList());
+		List<String> data = getTableSnapshot().getTextContents();
 
 		Log.info("Table Data {" + String.join(", ", data) + "}");
 		Log.info("Total Data: " + data.size());
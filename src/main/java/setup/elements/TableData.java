@@ -0,0 +1,141 @@
+package setup.elements;
+
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * To hold the headers and cells of a <b>Table</b> read in one go.
+ *
+ */
+public final class TableData {
+
+	private final List<String> headers;
+	private final List<List<Cell>> rows;
+
+	/**
+	 * This constructor is used to create the table data.
+	 * 
+	 * @param headers table headers
+	 * @param rows    rows of cells
+	 */
+	TableData(List<String> headers, List<List<Cell>> rows) {
+		this.headers = Collections.unmodifiableList(headers);
+		this.rows = Collections.unmodifiableList(rows);
+	}
+
+	/**
+	 * Get all the table headers.
+	 * 
+	 * @return list of table headers
+	 */
+	public List<String> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * Get all the rows which have data cells.
+	 * 
+	 * @return list of rows, each a list of cells
+	 */
+	public List<List<Cell>> getRows() {
+		return rows;
+	}
+
+	/**
+	 * Get the number of rows which have data cells.
+	 * 
+	 * @return row count
+	 */
+	public int getRowCount() {
+		return rows.size();
+	}
+
+	/**
+	 * Get the cell at the position.
+	 * 
+	 * @param row    row index, starting from 0
+	 * @param column column index, starting from 0
+	 * @return cell
+	 */
+	public Cell getCell(int row, int column) {
+		return rows.get(row).get(column);
+	}
+
+	/**
+	 * Get the visible text of all the data cells, row by row.
+	 * 
+	 * @return list of cell texts
+	 */
+	public List<String> getTexts() {
+		return rows.stream().flatMap(List::stream).map(Cell::getText).collect(toList());
+	}
+
+	/**
+	 * Get the text content of all the data cells, row by row.
+	 * 
+	 * @return list of cell text contents
+	 */
+	public List<String> getTextContents() {
+		return rows.stream().flatMap(List::stream).map(Cell::getTextContent).collect(toList());
+	}
+
+	/**
+	 * To hold one data cell of the table.
+	 *
+	 */
+	public static final class Cell {
+
+		private final String text;
+		private final String textContent;
+		private final String inputValue;
+
+		/**
+		 * This constructor is used to create a cell.
+		 * 
+		 * @param text        visible text
+		 * @param textContent text content, including hidden text
+		 * @param inputValue  value of the input field in the cell, or null if there is none
+		 */
+		Cell(String text, String textContent, String inputValue) {
+			this.text = text;
+			this.textContent = textContent;
+			this.inputValue = inputValue;
+		}
+
+		/**
+		 * Get the visible text of the cell.
+		 * 
+		 * @return the text
+		 */
+		public String getText() {
+			return text;
+		}
+
+		/**
+		 * Get the text content of the cell, including hidden text.
+		 * 
+		 * @return the text content
+		 */
+		public String getTextContent() {
+			return textContent;
+		}
+
+		/**
+		 * Get the value of the input field in the cell.
+		 * 
+		 * @return the input value, or null if the cell has no input field
+		 */
+		public String getInputValue() {
+			return inputValue;
+		}
+
+		@Override
+		public String toString() {
+			return inputValue == null ? text : text + " [" + inputValue + "]";
+		}
+
+	}
+
+}
@@ -5,8 +5,10 @@ import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebElement;
 import setup.logger.Log;
 import setup.utilities.ImplicitWait;
+import setup.utilities.StepProfiler;
 
 import static org.openqa.selenium.support.ui.ExpectedConditions.elementToBeClickable;
+import static setup.utilities.StepProfiler.Category.ACTION;
 
 /**
  * This Class is used to handle <b>Text Box</b>.
@@ -27,14 +29,16 @@ public final class TextField extends Element {
      * @param textToEnter text to enter (without pressing ENTER Key)
      */
     public void enterText(String textToEnter) {
-        WebElement element = wait.until(elementToBeClickable(locator));
-        element.clear();
-        element.sendKeys(textToEnter);
+        StepProfiler.time(ACTION, "Enter text", description, () -> {
+            WebElement element = wait.until(elementToBeClickable(locator));
+            element.clear();
+            element.sendKeys(textToEnter);
 
-        if (description.toLowerCase().contains("password"))
-            Log.info("Entered text [********] in the [" + description + "] text box");
-        else
-            Log.info("Entered text [" + textToEnter + "] in the [" + description + "] text box");
+            if (description.toLowerCase().contains("password"))
+                Log.info("Entered text [********] in the [" + description + "] text box");
+            else
+                Log.info("Entered text [" + textToEnter + "] in the [" + description + "] text box");
+        });
     }
 
     /**
@@ -42,16 +46,18 @@ public final class TextField extends Element {
      * @param textToEnter text to enter plus pressing the ENTER Key to populate or trigger correct field value (especially for dynamic field - Dropdown + TextField)
      */
     public void populateText(String textToEnter) {
-        WebElement element = wait.until(elementToBeClickable(locator));
-        element.clear();
-        element.sendKeys(textToEnter);
-        ImplicitWait.sleep(1);
-        element.sendKeys(Keys.ENTER);
+        StepProfiler.time(ACTION, "Enter text", description, () -> {
+            WebElement element = wait.until(elementToBeClickable(locator));
+            element.clear();
+            element.sendKeys(textToEnter);
+            ImplicitWait.sleep(1);
+            element.sendKeys(Keys.ENTER);
 
-        if (description.toLowerCase().contains("password"))
-            Log.info("Entered text [********] in the [" + description + "] text box");
-        else
-            Log.info("Entered text [" + textToEnter + "] in the [" + description + "] text box");
+            if (description.toLowerCase().contains("password"))
+                Log.info("Entered text [********] in the [" + description + "] text box");
+            else
+                Log.info("Entered text [" + textToEnter + "] in the [" + description + "] text box");
+        });
     }
 
     /**
@@ -59,10 +65,12 @@ public final class TextField extends Element {
      * @return text
      */
     public String getText() {
-        String text = wait.until(elementToBeClickable(locator)).getText();
-        Log.info("Text from [" + description + "] text box = " + text);
-        return text;
+        return StepProfiler.time(ACTION, "Read", description, () -> {
+            String text = wait.until(elementToBeClickable(locator)).getText();
+            Log.info("Text from [" + description + "] text box = " + text);
+            return text;
 
+        });
     }
 
     /**
@@ -70,9 +78,11 @@ public final class TextField extends Element {
      * @param key text to enter
      */
     public void enterText(Keys key) {
-        WebElement element = wait.until(elementToBeClickable(locator));
-        element.sendKeys(key);
-        Log.info("Entered Key [" + key + "] in the [" + description + "] text box");
+        StepProfiler.time(ACTION, "Enter text", description, () -> {
+            WebElement element = wait.until(elementToBeClickable(locator));
+            element.sendKeys(key);
+            Log.info("Entered Key [" + key + "] in the [" + description + "] text box");
+        });
     }
 
 
@@ -80,10 +90,12 @@ public final class TextField extends Element {
      * Clear text in the text box.
      */
     public void clearText() {
-        WebElement element = wait.until(elementToBeClickable(locator));
-        element.clear();
+        StepProfiler.time(ACTION, "Clear text", description, () -> {
+            WebElement element = wait.until(elementToBeClickable(locator));
+            element.clear();
 
-        Log.info("Cleared text in the [" + description + "] text box");
+            Log.info("Cleared text in the [" + description + "] text box");
+        });
     }
 
 }
@@ -0,0 +1,34 @@
+package setup.listeners;
+
+import org.testng.ITestResult;
+import setup.config.DriverFactory;
+import setup.utilities.Screencast;
+import setup.utilities.Screenshot;
+
+/**
+ * To capture the screenshot and screencast of a failed test once, whichever listener is notified of the failure
+ * first.
+ *
+ */
+final class FailureArtifacts {
+
+	private FailureArtifacts() {
+	}
+
+	/**
+	 * Capture the failure screenshot and screencast of the test, unless they have been captured already.
+	 * 
+	 * @param result the failed test
+	 */
+	static void capture(ITestResult result) {
+		synchronized (result) {
+			if (result.getAttribute("failureScreenshot") != null) {
+				return;
+			}
+			result.setAttribute("failureScreenshot", Screenshot.takeScreenShotAsync("Failure_" + result.getName()));
+			result.setAttribute("failureScreencast",
+					Screencast.encode(DriverFactory.currentDriver(), "Failure_" + result.getName()));
+		}
+	}
+
+}
@@ -0,0 +1,365 @@
+package setup.listeners;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import setup.config.DriverFactory;
+import setup.logger.Log;
+import setup.utilities.Configuration;
+import setup.utilities.Json;
+import setup.utilities.Screenshot;
+import setup.utilities.ScreenshotStore.StoredScreenshot;
+import setup.utilities.StepProfiler;
+import setup.utilities.StepProfiler.Category;
+import setup.utilities.StepProfiler.Profile;
+
+/**
+ * Listener class to export every test as soon as it finishes, as a JSON line in <b>&lt;suite&gt;.jsonl</b> and as a
+ * test case of the JUnit XML report <b>TEST-&lt;suite&gt;.xml</b>, under <b>resultExportPath</b>. The tests are handed
+ * to a writer thread through a buffer of <b>resultExportBufferSize</b> tests, and the files are only appended to, so
+ * the JSON lines can be tailed during the run. The failed runs of a retried test are only exported as JSON lines, so
+ * the JUnit XML report holds the final outcome of every test.
+ *
+ */
+public final class ResultExporter implements ITestListener, ISuiteListener {
+
+	private static final Path EXPORT_DIRECTORY = Paths.get(Configuration.get("resultExportPath",
+			Paths.get(System.getProperty("user.dir"), "target", "test-results").toString()));
+	private static final int BUFFER_SIZE = Configuration.getInt("resultExportBufferSize", 256);
+	private static final Record END = new Record(null, null, null, null, null, 0);
+
+	private final Map<ISuite, Export> exports = Collections.synchronizedMap(new IdentityHashMap<>());
+
+	@Override
+	public void onStart(ISuite suite) {
+		exports.computeIfAbsent(suite, Export::new);
+	}
+
+	@Override
+	public void onFinish(ISuite suite) {
+		Export export = exports.remove(suite);
+		if (export != null) {
+			export.close();
+		}
+	}
+
+	@Override
+	public void onTestSuccess(ITestResult result) {
+		export(result, "passed");
+	}
+
+	@Override
+	public void onTestFailure(ITestResult result) {
+		FailureArtifacts.capture(result);
+		export(result, "failed");
+	}
+
+	@Override
+	public void onTestSkipped(ITestResult result) {
+		export(result, result.wasRetried() ? "retried" : "skipped");
+	}
+
+	/**
+	 * Hand the finished test to the writer of its suite, waiting for room in the buffer if the writer is behind.
+	 *
+	 * @param result the finished test
+	 * @param status status of the test
+	 */
+	private void export(ITestResult result, String status) {
+		Export export = exports.get(result.getTestContext().getSuite());
+		if (export == null) {
+			return;
+		}
+		try {
+			export.queue.put(record(result, status));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			Log.warn("[Result Export] Interrupted while exporting the test [" + result.getName() + "]");
+		}
+	}
+
+	/**
+	 * Build the JSON line and the JUnit test case of the finished test. The screenshots are left to the writer, which
+	 * waits for them to be stored.
+	 *
+	 * @param result the finished test
+	 * @param status status of the test
+	 * @return record of the test
+	 */
+	private static Record record(ITestResult result, String status) {
+		String className = result.getTestClass().getName();
+		long millis = result.getEndMillis() - result.getStartMillis();
+		Profile profile = StepProfiler.take(result);
+		Throwable throwable = result.getThrowable();
+
+		StringBuilder json = new StringBuilder("{\"suite\":");
+		Json.quote(json, result.getTestContext().getSuite().getName()).append(",\"test\":");
+		Json.quote(json, result.getTestContext().getName()).append(",\"class\":");
+		Json.quote(json, className).append(",\"method\":");
+		Json.quote(json, result.getName()).append(",\"parameters\":[");
+		Object[] parameters = result.getParameters();
+		for (int i = 0; i < parameters.length; i++) {
+			Json.quote(json.append(i == 0 ? "" : ","), String.valueOf(parameters[i]));
+		}
+		json.append("],\"status\":\"").append(status).append("\",\"start\":");
+		Json.quote(json, Instant.ofEpochMilli(result.getStartMillis()).toString()).append(",\"end\":");
+		Json.quote(json, Instant.ofEpochMilli(result.getEndMillis()).toString()).append(",\"durationMillis\":")
+				.append(millis).append(",\"thread\":");
+		Json.quote(json, Thread.currentThread().getName()).append(",\"session\":");
+		Json.quote(json, DriverFactory.currentSessionId()).append(",\"error\":");
+		if (throwable == null) {
+			json.append("null");
+		} else {
+			Json.quote(json.append("{\"type\":"), throwable.getClass().getName()).append(",\"message\":");
+			Json.quote(json, throwable.getMessage()).append('}');
+		}
+		json.append(",\"selfMillis\":{");
+		for (Category category : Category.values()) {
+			json.append(category.ordinal() == 0 ? "" : ",").append('"').append(category).append("\":")
+					.append(profile == null ? 0 : profile.getSelfMillis(category));
+		}
+		json.append("},\"steps\":").append(profile == null ? "[]" : profile.toJson());
+
+		String name = result.getName() + (parameters.length == 0 ? ""
+				: Arrays.stream(parameters).map(String::valueOf).collect(joining(", ", "(", ")")));
+		StringBuilder xml = new StringBuilder("  <testcase classname=\"").append(xml(className)).append("\" name=\"")
+				.append(xml(name)).append("\" time=\"").append(String.format(Locale.ROOT, "%.3f", millis / 1000.0))
+				.append("\">\n");
+		if ("skipped".equals(status)) {
+			xml.append("    <skipped/>\n");
+		} else if (throwable != null) {
+			xml.append("    <failure type=\"").append(xml(throwable.getClass().getName())).append("\" message=\"")
+					.append(xml(String.valueOf(throwable.getMessage()))).append("\">")
+					.append(xml(stackTrace(throwable))).append("</failure>\n");
+		}
+		return new Record(json.toString(), xml.toString(), result.getAttribute("failureScreenshot"),
+				result.getAttribute("failureScreencast"), status, millis);
+	}
+
+	/**
+	 * Get the stack trace of the failure.
+	 *
+	 * @param throwable failure of the test
+	 * @return stack trace
+	 */
+	private static String stackTrace(Throwable throwable) {
+		StringWriter trace = new StringWriter();
+		throwable.printStackTrace(new PrintWriter(trace));
+		return trace.toString();
+	}
+
+	/**
+	 * Escape the text for XML, dropping the characters XML cannot hold.
+	 *
+	 * @param text text to escape
+	 * @return escaped text
+	 */
+	private static String xml(String text) {
+		StringBuilder escaped = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '&':
+				escaped.append("&amp;");
+				break;
+			case '<':
+				escaped.append("&lt;");
+				break;
+			case '>':
+				escaped.append("&gt;");
+				break;
+			case '"':
+				escaped.append("&quot;");
+				break;
+			default:
+				if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+					escaped.append(c);
+				}
+			}
+		}
+		return escaped.toString();
+	}
+
+	/**
+	 * A finished test waiting to be written.
+	 */
+	private static final class Record {
+
+		private final String json;
+		private final String xml;
+		private final Object screenshot;
+		private final Object screencast;
+		private final String status;
+		private final long millis;
+
+		private Record(String json, String xml, Object screenshot, Object screencast, String status, long millis) {
+			this.json = json;
+			this.xml = xml;
+			this.screenshot = screenshot;
+			this.screencast = screencast;
+			this.status = status;
+			this.millis = millis;
+		}
+
+	}
+
+	/**
+	 * The export files of a suite, and the thread writing them.
+	 */
+	private static final class Export {
+
+		private final String suite;
+		private final Path jsonLines;
+		private final Path junitXml;
+		private final Path testCases;
+		private final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(BUFFER_SIZE);
+		private final Thread writer;
+		private int tests;
+		private int failures;
+		private int skipped;
+		private long millis;
+
+		private Export(ISuite suite) {
+			this.suite = suite.getName();
+			String name = this.suite.replaceAll("[^\\w.-]", "_");
+			jsonLines = EXPORT_DIRECTORY.resolve(name + ".jsonl");
+			junitXml = EXPORT_DIRECTORY.resolve("TEST-" + name + ".xml");
+			testCases = EXPORT_DIRECTORY.resolve("TEST-" + name + ".xml.part");
+			writer = new Thread(this::write, "result-exporter");
+			writer.setDaemon(true);
+			writer.start();
+		}
+
+		/**
+		 * Write the tests as they arrive, flushing whenever the buffer runs empty, until the suite finishes.
+		 */
+		private void write() {
+			try {
+				Files.createDirectories(EXPORT_DIRECTORY);
+				try (Writer json = Files.newBufferedWriter(jsonLines, UTF_8);
+						Writer xml = Files.newBufferedWriter(testCases, UTF_8)) {
+					while (true) {
+						Record record = queue.poll();
+						if (record == null) {
+							json.flush();
+							xml.flush();
+							record = queue.take();
+						}
+						if (record == END) {
+							break;
+						}
+						write(record, json, xml);
+					}
+				}
+				writeJunitXml();
+			} catch (IOException e) {
+				Log.error("[Result Export] Unable to export the results of the suite [" + suite + "]", e);
+				discard();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Keep taking the tests from the buffer without writing them, so the tests never wait on a failed export.
+		 */
+		private void discard() {
+			try {
+				while (queue.take() != END) {
+					// The test is not exported
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Write the test as a JSON line and as a JUnit test case, once its screenshots are stored.
+		 *
+		 * @param record record of the test
+		 * @param json   JSON lines file
+		 * @param xml    JUnit test cases file
+		 * @throws IOException if the files cannot be written
+		 */
+		private void write(Record record, Writer json, Writer xml) throws IOException {
+			StoredScreenshot screenshot = Screenshot.stored(record.screenshot);
+			StoredScreenshot screencast = Screenshot.stored(record.screencast);
+			StringBuilder line = new StringBuilder(record.json).append(",\"screenshot\":");
+			Json.quote(line, screenshot == null ? null : screenshot.getImage().toString()).append(",\"screencast\":");
+			Json.quote(line, screencast == null ? null : screencast.getImage().toString()).append("}\n");
+			json.write(line.toString());
+			if ("retried".equals(record.status)) {
+				return;
+			}
+			xml.write(record.xml);
+			if (screenshot != null || screencast != null) {
+				xml.write("    <system-out>");
+				for (StoredScreenshot attachment : new StoredScreenshot[] { screenshot, screencast }) {
+					if (attachment != null) {
+						xml.write("[[ATTACHMENT|" + xml(attachment.getImage().toString()) + "]]\n");
+					}
+				}
+				xml.write("</system-out>\n");
+			}
+			xml.write("  </testcase>\n");
+			tests++;
+			failures += "failed".equals(record.status) ? 1 : 0;
+			skipped += "skipped".equals(record.status) ? 1 : 0;
+			millis += record.millis;
+		}
+
+		/**
+		 * Write the JUnit XML report, with the suite's totals in front of the test cases written so far.
+		 *
+		 * @throws IOException if the report cannot be written
+		 */
+		private void writeJunitXml() throws IOException {
+			try (OutputStream xml = Files.newOutputStream(junitXml)) {
+				xml.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"" + xml(suite) + "\" tests=\""
+						+ tests + "\" failures=\"" + failures + "\" errors=\"0\" skipped=\"" + skipped + "\" time=\""
+						+ String.format(Locale.ROOT, "%.3f", millis / 1000.0) + "\" timestamp=\"" + Instant.now()
+						+ "\">\n").getBytes(UTF_8));
+				Files.copy(testCases, xml);
+				xml.write("</testsuite>\n".getBytes(UTF_8));
+			}
+			Files.delete(testCases);
+		}
+
+		/**
+		 * Let the writer finish the tests in the buffer, and wait for it to write the JUnit XML report.
+		 */
+		private void close() {
+			try {
+				queue.put(END);
+				writer.join(TimeUnit.MINUTES.toMillis(1));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,154 @@
+package setup.listeners;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.testng.IRetryAnalyzer;
+import org.testng.ISuite;
+import org.testng.ISuiteResult;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import setup.config.DriverFactory;
+import setup.elements.Element;
+import setup.logger.Log;
+import setup.utilities.Configuration;
+
+/**
+ * To retry a failed test in place, on the same warm browser after resetting it, instead of rerunning the suite. A test
+ * is retried up to <b>retryCount</b> times, and the suite stops retrying once <b>retryBudget</b> retries are used.
+ *
+ */
+public final class RetryAnalyzer implements IRetryAnalyzer {
+
+	private static final int MAX_RETRIES = Configuration.getInt("retryCount", 1);
+	private static final int SUITE_BUDGET = Configuration.getInt("retryBudget", 10);
+	private static final String RETRIES_USED = "retriesUsed";
+
+	private int retries;
+
+	/**
+	 * Check whether the failed test is to run again, and if so reset the browser for it.
+	 *
+	 * @param result the failed test
+	 * @return true to run the test again, false otherwise
+	 */
+	@Override
+	public boolean retry(ITestResult result) {
+		if (retries >= MAX_RETRIES) {
+			return false;
+		}
+		ISuite suite = result.getTestContext().getSuite();
+		int used = useBudget(suite);
+		if (used < 0) {
+			Log.warn("[Retry] Test [" + result.getName() + "] failed, but the retry budget of " + SUITE_BUDGET
+					+ " is used up");
+			return false;
+		}
+		retries++;
+		boolean warm = DriverFactory.resetSession();
+		if (warm) {
+			Element.invalidateHandles();
+		}
+		Log.warn("[Retry] Test [" + result.getName() + "] failed, retrying it on " + (warm ? "the same" : "a new")
+				+ " browser (retry " + retries + " of " + MAX_RETRIES + ", " + (SUITE_BUDGET - used)
+				+ " left in the suite)");
+		return true;
+	}
+
+	/**
+	 * Get the flakiness of the tests retried in the suites as an html table: how many times each ran and how it
+	 * finally ended.
+	 *
+	 * @param suites the executed suites
+	 * @return html of the retried tests, or an empty string if no test was retried
+	 */
+	static String flakinessHtml(List<ISuite> suites) {
+		Map<String, Flakiness> tests = new TreeMap<>();
+		for (ISuite suite : suites) {
+			for (ISuiteResult suiteResult : suite.getResults().values()) {
+				ITestContext context = suiteResult.getTestContext();
+				List<ITestResult> results = new ArrayList<>(context.getPassedTests().getAllResults());
+				results.addAll(context.getFailedTests().getAllResults());
+				results.addAll(context.getSkippedTests().getAllResults());
+				for (ITestResult result : results) {
+					tests.computeIfAbsent(RunHistory.testName(result), test -> new Flakiness()).add(result);
+				}
+			}
+		}
+		tests.values().removeIf(flakiness -> flakiness.retries == 0);
+		if (tests.isEmpty()) {
+			return "";
+		}
+		int used = suites.stream().mapToInt(suite -> suite.getAttribute(RETRIES_USED) instanceof Integer
+				? (Integer) suite.getAttribute(RETRIES_USED) : 0).sum();
+		StringBuilder html = new StringBuilder("<b>Retried tests</b> (" + used + " of " + SUITE_BUDGET
+				+ " retries used)<table class='table table-sm'><tr><th>Test</th><th>Runs</th><th>Failed runs</th>"
+				+ "<th>Final status</th><th>Flaky</th></tr>");
+		tests.forEach((test, flakiness) -> html.append("<tr><td>").append(test).append("</td><td>")
+				.append(flakiness.runs).append("</td><td>").append(flakiness.retries).append("</td><td>")
+				.append(flakiness.finalStatus).append("</td><td>").append(flakiness.isFlaky() ? "yes" : "no")
+				.append("</td></tr>"));
+		Log.warn("[Retry] " + tests.size() + " test(s) retried, "
+				+ tests.values().stream().filter(Flakiness::isFlaky).count() + " of them passed on a retry");
+		return html.append("</table>").toString();
+	}
+
+	/**
+	 * Take a retry from the suite's budget.
+	 *
+	 * @param suite the executed suite
+	 * @return retries used in the suite, including this one, or -1 if the budget is used up
+	 */
+	private static int useBudget(ISuite suite) {
+		synchronized (suite) {
+			Object used = suite.getAttribute(RETRIES_USED);
+			int retriesUsed = used instanceof Integer ? (Integer) used : 0;
+			if (retriesUsed >= SUITE_BUDGET) {
+				return -1;
+			}
+			suite.setAttribute(RETRIES_USED, retriesUsed + 1);
+			return retriesUsed + 1;
+		}
+	}
+
+	/**
+	 * The runs of a test in the suites.
+	 */
+	private static final class Flakiness {
+
+		private int runs;
+		private int retries;
+		private long lastEnd;
+		private String finalStatus = "";
+
+		/**
+		 * Count a run of the test.
+		 *
+		 * @param result the executed test
+		 */
+		private void add(ITestResult result) {
+			runs++;
+			if (result.wasRetried()) {
+				retries++;
+			} else if (result.getEndMillis() >= lastEnd) {
+				lastEnd = result.getEndMillis();
+				finalStatus = result.getStatus() == ITestResult.SUCCESS ? "passed"
+						: result.getStatus() == ITestResult.FAILURE ? "failed" : "skipped";
+			}
+		}
+
+		/**
+		 * Check whether the test passed on a retry.
+		 *
+		 * @return true if flaky, false otherwise
+		 */
+		private boolean isFlaky() {
+			return retries > 0 && "passed".equals(finalStatus);
+		}
+
+	}
+
+}
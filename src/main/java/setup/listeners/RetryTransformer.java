@@ -0,0 +1,44 @@
+package setup.listeners;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import org.testng.IAnnotationTransformer;
+import org.testng.IRetryAnalyzer;
+import org.testng.annotations.ITestAnnotation;
+import org.testng.annotations.Test;
+
+/**
+ * Listener class to retry the failed tests on the same browser with {@link RetryAnalyzer}, unless they declare their
+ * own retry analyzer. TestNG only applies annotation transformers registered before the test classes are read, so it
+ * is registered through <b>META-INF/services/org.testng.ITestNGListener</b> rather than {@code @Listeners}.
+ *
+ */
+public final class RetryTransformer implements IAnnotationTransformer {
+
+	private static final Object NOT_DECLARED = notDeclared();
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor,
+			Method testMethod) {
+		Class<? extends IRetryAnalyzer> analyzer = annotation.getRetryAnalyzerClass();
+		if (analyzer == null || analyzer == NOT_DECLARED) {
+			annotation.setRetryAnalyzer(RetryAnalyzer.class);
+		}
+	}
+
+	/**
+	 * Get the retry analyzer of a {@code @Test} which declares none.
+	 *
+	 * @return default of {@link Test#retryAnalyzer()}
+	 */
+	private static Object notDeclared() {
+		try {
+			return Test.class.getMethod("retryAnalyzer").getDefaultValue();
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Unable to read the default retry analyzer of TestNG", e);
+		}
+	}
+
+}
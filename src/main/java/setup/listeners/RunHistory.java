@@ -0,0 +1,426 @@
+package setup.listeners;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.util.stream.Collectors.joining;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.testng.ITestResult;
+
+import com.aventstack.extentreports.Status;
+
+import setup.logger.Log;
+import setup.utilities.Configuration;
+import setup.utilities.Json;
+import setup.utilities.StepProfiler;
+import setup.utilities.StepProfiler.Category;
+import setup.utilities.StepProfiler.Profile;
+
+/**
+ * To keep the durations of the tests and of their steps over the runs in CSV files under <b>runHistoryPath</b>, and to
+ * flag the tests that got slower than the median of their last passed runs in the same suite.
+ *
+ */
+final class RunHistory {
+
+	private static final Path HISTORY_DIRECTORY = Paths.get(Configuration.get("runHistoryPath",
+			Paths.get(System.getProperty("user.dir"), "run-history").toString()));
+	private static final Path TESTS = HISTORY_DIRECTORY.resolve("tests.csv");
+	private static final Path STEPS = HISTORY_DIRECTORY.resolve("steps.csv");
+	private static final String TESTS_HEADER = "run,suite,test,status,start,duration_ms,navigation_ms,action_ms,wait_ms,"
+			+ "screenshot_ms";
+	private static final String STEPS_HEADER = "run,test,step,count,duration_ms";
+	private static final int WINDOW = Configuration.getInt("runHistoryWindow", 10);
+	private static final int MIN_SAMPLES = 3;
+	private static final int MAX_RUNS = Configuration.getInt("runHistoryRuns", 50);
+	private static final int THRESHOLD_PERCENT = Configuration.getInt("regressionThresholdPercent", 30);
+	private static final long MIN_REGRESSION_MILLIS = Configuration.getInt("regressionMinMillis", 500);
+	private static final Category[] CATEGORIES = Category.values();
+
+	private final String run = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+	private final String suite;
+	private final Map<String, Deque<long[]>> baselines = new HashMap<>();
+	private final Set<String> runs = new LinkedHashSet<>();
+	private final List<String> testRows = new ArrayList<>();
+	private final List<String> stepRows = new ArrayList<>();
+	private final List<Regression> regressions = new ArrayList<>();
+	private int tests;
+
+	/**
+	 * Load the passed durations of the earlier runs.
+	 *
+	 * @param suite name of the executed suite
+	 */
+	RunHistory(String suite) {
+		this.suite = suite;
+		if (Files.notExists(TESTS)) {
+			return;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(TESTS, UTF_8)) {
+			reader.readLine();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				List<String> row = parse(line);
+				if (row.size() < 6 + CATEGORIES.length) {
+					continue;
+				}
+				runs.add(row.get(0));
+				if (!Status.PASS.toString().equals(row.get(3))) {
+					continue;
+				}
+				long[] sample = new long[1 + CATEGORIES.length];
+				for (int i = 0; i < sample.length; i++) {
+					sample[i] = Long.parseLong(row.get(5 + i));
+				}
+				Deque<long[]> samples = baselines.computeIfAbsent(key(row.get(1), row.get(2)),
+						test -> new ArrayDeque<>());
+				samples.addLast(sample);
+				if (samples.size() > WINDOW) {
+					samples.removeFirst();
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			Log.error("[Run History] Unable to read " + TESTS + ", regressions are not checked", e);
+			baselines.clear();
+		}
+	}
+
+	/**
+	 * Record the duration of the finished test and its steps, and check it against the test's baseline.
+	 *
+	 * @param result  the finished test
+	 * @param status  status of the test
+	 * @param profile profile of the test's steps, or null if none was recorded
+	 * @return the regression, or null if the test is not slower than its baseline
+	 */
+	synchronized Regression record(ITestResult result, Status status, Profile profile) {
+		String test = testName(result);
+		long[] sample = new long[1 + CATEGORIES.length];
+		sample[0] = result.getEndMillis() - result.getStartMillis();
+		for (int i = 0; i < CATEGORIES.length; i++) {
+			sample[1 + i] = profile == null ? 0 : profile.getSelfMillis(CATEGORIES[i]);
+		}
+		StringBuilder row = new StringBuilder().append(run).append(',').append(csv(suite)).append(',')
+				.append(csv(test)).append(',').append(result.wasRetried() ? "retried" : status).append(',')
+				.append(result.getStartMillis());
+		for (long value : sample) {
+			row.append(',').append(value);
+		}
+		testRows.add(row.toString());
+		tests++;
+		if (profile != null) {
+			profile.getSteps().forEach((step, totals) -> stepRows.add(run + "," + csv(test) + "," + csv(step) + ","
+					+ totals[0] + "," + totals[1]));
+		}
+		if (status != Status.PASS) {
+			return null;
+		}
+		Regression regression = check(test, sample);
+		if (regression != null) {
+			regressions.add(regression);
+		}
+		return regression;
+	}
+
+	/**
+	 * Append the tests of this run to the history, keeping the last <b>runHistoryRuns</b> runs, and write the
+	 * regressions of this run as JSON.
+	 *
+	 * @param summary file to write the regressions to
+	 */
+	synchronized void finish(Path summary) {
+		try {
+			Files.createDirectories(HISTORY_DIRECTORY);
+			append(TESTS, TESTS_HEADER, testRows);
+			append(STEPS, STEPS_HEADER, stepRows);
+			runs.add(run);
+			if (runs.size() > MAX_RUNS) {
+				List<String> ordered = new ArrayList<>(runs);
+				Set<String> kept = new LinkedHashSet<>(ordered.subList(ordered.size() - MAX_RUNS, ordered.size()));
+				compact(TESTS, kept);
+				compact(STEPS, kept);
+			}
+			testRows.clear();
+			stepRows.clear();
+		} catch (IOException e) {
+			Log.error("[Run History] Unable to write the run history to " + HISTORY_DIRECTORY, e);
+		}
+		try {
+			Files.createDirectories(summary.getParent());
+			Files.write(summary, toJson().getBytes(UTF_8));
+		} catch (IOException e) {
+			Log.error("[Run History] Unable to write the regression summary " + summary, e);
+		}
+		if (!regressions.isEmpty()) {
+			Log.warn("[Run History] " + regressions.size() + " test(s) got slower than their baseline, see " + summary);
+		}
+	}
+
+	/**
+	 * Get the regressions of this run as an html table.
+	 *
+	 * @return html of the regressions, or an empty string if there is none
+	 */
+	synchronized String toHtml() {
+		if (regressions.isEmpty()) {
+			return "";
+		}
+		StringBuilder html = new StringBuilder("<b>Slower than the baseline</b> (median of the last " + WINDOW
+				+ " passed runs, threshold " + THRESHOLD_PERCENT + "%)<table class='table table-sm'><tr><th>Test</th>"
+				+ "<th>Time (ms)</th><th>Baseline (ms)</th><th>Increase</th><th>Most grown</th></tr>");
+		for (Regression regression : regressions) {
+			html.append("<tr><td>").append(StepProfiler.escape(regression.test)).append("</td><td>")
+					.append(regression.millis).append("</td><td>").append(regression.baselineMillis).append("</td><td>+")
+					.append(regression.increasePercent()).append("%</td><td>").append(regression.cause())
+					.append("</td></tr>");
+		}
+		return html.append("</table>").toString();
+	}
+
+	/**
+	 * Get the name under which the test is kept, with its parameters.
+	 *
+	 * @param result the executed test
+	 * @return test name
+	 */
+	static String testName(ITestResult result) {
+		return result.getMethod().getQualifiedName() + (result.getParameters().length == 0 ? ""
+				: Arrays.stream(result.getParameters()).map(String::valueOf).collect(joining(", ", "(", ")")));
+	}
+
+	/**
+	 * Get the key of the test's baseline, as a test of the same name may run in several suites. The names are
+	 * flattened the way they are written to the CSV file, so that the key of a run matches the key read back.
+	 *
+	 * @param suite suite name
+	 * @param test  test name
+	 * @return baseline key
+	 */
+	private static String key(String suite, String test) {
+		return suite.replaceAll("[\r\n]+", " ") + '\n' + test.replaceAll("[\r\n]+", " ");
+	}
+
+	/**
+	 * Check the test's duration against the median of its last passed runs in this suite.
+	 *
+	 * @param test   test name
+	 * @param sample duration of the test and the self time of each step category
+	 * @return the regression, or null if the test is not slower than its baseline
+	 */
+	private Regression check(String test, long[] sample) {
+		Deque<long[]> samples = baselines.get(key(suite, test));
+		if (samples == null || samples.size() < MIN_SAMPLES) {
+			return null;
+		}
+		long[] baseline = new long[sample.length];
+		for (int i = 0; i < sample.length; i++) {
+			final int column = i;
+			baseline[i] = median(samples.stream().mapToLong(values -> values[column]).toArray());
+		}
+		long increase = sample[0] - baseline[0];
+		if (increase < MIN_REGRESSION_MILLIS || increase * 100 < baseline[0] * THRESHOLD_PERCENT) {
+			return null;
+		}
+		int cause = -1;
+		for (int i = 0; i < CATEGORIES.length; i++) {
+			if (cause < 0 || sample[1 + i] - baseline[1 + i] > sample[1 + cause] - baseline[1 + cause]) {
+				cause = i;
+			}
+		}
+		long causeMillis = sample[1 + cause] - baseline[1 + cause];
+		return new Regression(test, sample[0], baseline[0], samples.size(), causeMillis > 0 ? CATEGORIES[cause] : null,
+				causeMillis);
+	}
+
+	/**
+	 * Get the regressions of this run as JSON.
+	 *
+	 * @return JSON summary
+	 */
+	private String toJson() {
+		StringBuilder json = new StringBuilder("{\"run\":");
+		Json.quote(json, run).append(",\"suite\":");
+		Json.quote(json, suite).append(",\"tests\":").append(tests)
+				.append(",\"window\":").append(WINDOW).append(",\"thresholdPercent\":").append(THRESHOLD_PERCENT)
+				.append(",\"regressions\":[");
+		for (int i = 0; i < regressions.size(); i++) {
+			Regression regression = regressions.get(i);
+			json.append(i == 0 ? "" : ",").append("{\"test\":");
+			Json.quote(json, regression.test).append(",\"durationMillis\":").append(regression.millis)
+					.append(",\"baselineMillis\":").append(regression.baselineMillis).append(",\"samples\":")
+					.append(regression.samples).append(",\"increasePercent\":").append(regression.increasePercent())
+					.append(",\"cause\":");
+			Json.quote(json, regression.cause == null ? null : regression.cause.toString()).append(",\"causeMillis\":")
+					.append(Math.max(0, regression.causeMillis)).append('}');
+		}
+		return json.append("]}\n").toString();
+	}
+
+	/**
+	 * Append the rows to the CSV file, writing its header first if it is new.
+	 *
+	 * @param file   CSV file
+	 * @param header header of the file
+	 * @param rows   rows to append
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void append(Path file, String header, List<String> rows) throws IOException {
+		boolean created = Files.notExists(file);
+		try (Writer writer = Files.newBufferedWriter(file, UTF_8, CREATE, APPEND)) {
+			if (created) {
+				writer.write(header + "\n");
+			}
+			for (String row : rows) {
+				writer.write(row + "\n");
+			}
+		}
+	}
+
+	/**
+	 * Rewrite the CSV file with the rows of the kept runs only.
+	 *
+	 * @param file CSV file
+	 * @param kept runs to keep
+	 * @throws IOException if the file cannot be rewritten
+	 */
+	private static void compact(Path file, Set<String> kept) throws IOException {
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		try (BufferedReader reader = Files.newBufferedReader(file, UTF_8);
+				Writer writer = Files.newBufferedWriter(temporary, UTF_8)) {
+			writer.write(reader.readLine() + "\n");
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (kept.contains(line.substring(0, Math.max(0, line.indexOf(','))))) {
+					writer.write(line + "\n");
+				}
+			}
+		}
+		Files.move(temporary, file, REPLACE_EXISTING);
+	}
+
+	/**
+	 * Get the median of the values.
+	 *
+	 * @param values values to sort
+	 * @return median value
+	 */
+	private static long median(long[] values) {
+		Arrays.sort(values);
+		int middle = values.length / 2;
+		return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2;
+	}
+
+	/**
+	 * Quote the value as a CSV field if needed.
+	 *
+	 * @param value value to write
+	 * @return CSV field
+	 */
+	private static String csv(String value) {
+		String field = value.replaceAll("[\r\n]+", " ");
+		return field.matches(".*[,\"].*") ? "\"" + field.replace("\"", "\"\"") + "\"" : field;
+	}
+
+	/**
+	 * Split the CSV line into its fields.
+	 *
+	 * @param line CSV line
+	 * @return fields
+	 */
+	private static List<String> parse(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c != '"') {
+					field.append(c);
+				} else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else {
+					quoted = false;
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * A test slower than its baseline.
+	 */
+	static final class Regression {
+
+		private final String test;
+		private final long millis;
+		private final long baselineMillis;
+		private final int samples;
+		private final Category cause;
+		private final long causeMillis;
+
+		private Regression(String test, long millis, long baselineMillis, int samples, Category cause,
+				long causeMillis) {
+			this.test = test;
+			this.millis = millis;
+			this.baselineMillis = baselineMillis;
+			this.samples = samples;
+			this.cause = cause;
+			this.causeMillis = causeMillis;
+		}
+
+		/**
+		 * Get how much slower the test is than its baseline.
+		 *
+		 * @return increase in percent
+		 */
+		private long increasePercent() {
+			return baselineMillis == 0 ? 100 : (millis - baselineMillis) * 100 / baselineMillis;
+		}
+
+		/**
+		 * Get the step category that grew the most.
+		 *
+		 * @return category and its growth, or an empty string if no category grew
+		 */
+		private String cause() {
+			return cause == null ? "" : cause + " +" + causeMillis + " ms";
+		}
+
+		@Override
+		public String toString() {
+			return "Test took " + millis + " ms, " + increasePercent() + "% more than its baseline of " + baselineMillis
+					+ " ms over the last " + samples + " passed runs" + (cause == null ? "" : "; " + cause()
+							+ " grew the most");
+		}
+
+	}
+
+}
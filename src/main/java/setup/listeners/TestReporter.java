@@ -8,11 +8,14 @@ import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
 import static java.util.stream.Collectors.joining;
 import static setup.base.BaseTest.environment;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -20,59 +23,218 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import com.aventstack.extentreports.*;
+import org.apache.commons.io.FileUtils;
 import setup.config.DriverType;
+import setup.config.LaunchProfile;
 import setup.config.WebDriverThread;
 import setup.logger.Log;
+import setup.logger.ReportSpool;
+import setup.utilities.Configuration;
+import setup.utilities.Screenshot;
+import setup.utilities.ScreenshotStore.StoredScreenshot;
+import setup.utilities.StepProfiler;
+import setup.utilities.StepProfiler.Profile;
 import org.testng.IReporter;
 import org.testng.IResultMap;
 import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ISuiteResult;
 import org.testng.ITestContext;
+import org.testng.ITestListener;
 import org.testng.ITestResult;
-import org.testng.Reporter;
 import org.testng.xml.XmlSuite;
 
 import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
 
 /**
- * Listener class to create report on the completion of the execution.
+ * Listener class to create the report. In the default <b>stream</b> report mode every test is handed to a reporter
+ * thread as soon as it finishes, which adds it to the report once its failure artifacts are stored and writes the
+ * report every <b>reportFlushSeconds</b>, so a partial report can be opened during the run and the tests never wait
+ * on the report; the <b>end</b> report mode builds the whole report on the completion of the execution. Extent keeps
+ * every test of a report in memory and renders all of them on each write, so once <b>reportChunkSize</b> tests are in
+ * the report it is written one last time, moved aside as a numbered part, and a new report is started which links to
+ * the earlier parts. Memory and the cost of a write are thus bounded by the chunk size, not by the suite size.
  *
  */
-public final class TestReporter implements IReporter {
+public final class TestReporter implements IReporter, ITestListener, ISuiteListener {
 
+	private static final boolean STREAMING = !"end".equalsIgnoreCase(Configuration.get("reportMode", "stream"));
+	private static final long FLUSH_MILLIS = Configuration.getInt("reportFlushSeconds", 10) * 1000L;
+	private static final int CHUNK_SIZE = Configuration.getInt("reportChunkSize", 250);
+	private static final Node END = new Node(null, null);
+
+	private final BlockingQueue<Node> nodes = new LinkedBlockingQueue<>();
 	private ExtentReports extent;
+	private Path reportDirectory;
+	private Path report;
+	private String suiteName;
+	private final List<String> parts = new ArrayList<>();
+	private int chunkTests;
+	private int chunkPassed;
+	private int chunkFailed;
+	private int chunkSkipped;
+	private volatile Thread reporter;
+	private RunHistory history;
 
 	private final Optional<String> browser = Optional.ofNullable(System.getProperty("browser"));
 	private final String operatingSystem = System.getProperty("os.name").toUpperCase();
 	private final String systemArchitecture = System.getProperty("os.arch").toUpperCase();
 
 	@Override
-	public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
-		this.init(xmlSuites);
-		for (ISuite suite : suites) {
-			Map<String, ISuiteResult> results = suite.getResults();
-			for (ISuiteResult result : results.values()) {
-				ITestContext context = result.getTestContext();
-				buildTestNodes(context.getFailedTests(), FAIL);
-				buildTestNodes(context.getSkippedTests(), SKIP);
-				buildTestNodes(context.getPassedTests(), PASS);
+	public synchronized void onStart(ISuite suite) {
+		//Delete Existing Report & logs
+		String PATH = System.getProperty("user.dir") + "/test-output/";
+		try {
+			FileUtils.deleteDirectory(new File(PATH));
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		if (history == null) {
+			history = new RunHistory(suite.getName());
+		}
+		if (STREAMING && extent == null) {
+			this.init(suite.getName());
+			reporter = new Thread(this::report, "test-reporter");
+			reporter.setDaemon(true);
+			reporter.start();
+		}
+	}
+
+	@Override
+	public void onTestSuccess(ITestResult result) {
+		streamTestNode(result, PASS);
+	}
+
+	@Override
+	public void onTestFailure(ITestResult result) {
+		FailureArtifacts.capture(result);
+		streamTestNode(result, FAIL);
+	}
+
+	@Override
+	public void onTestSkipped(ITestResult result) {
+		streamTestNode(result, SKIP);
+	}
+
+	@Override
+	public synchronized void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+		stopReporter();
+		Log.flush();
+		if (history == null) {
+			history = new RunHistory(xmlSuites.get(0).getName());
+		}
+		if (!STREAMING || extent == null) {
+			this.init(xmlSuites.get(0).getName());
+			for (ISuite suite : suites) {
+				Map<String, ISuiteResult> results = suite.getResults();
+				for (ISuiteResult result : results.values()) {
+					ITestContext context = result.getTestContext();
+					buildTestNodes(context.getFailedTests(), FAIL);
+					buildTestNodes(context.getSkippedTests(), SKIP);
+					buildTestNodes(context.getPassedTests(), PASS);
+				}
 			}
 		}
-		Reporter.getOutput().forEach(extent::setTestRunnerOutput);
+		history.finish(reportDirectory.resolve("regressions.json"));
+		String regressions = history.toHtml();
+		if (!regressions.isEmpty()) {
+			extent.setTestRunnerOutput(regressions);
+		}
+		String retriedTests = RetryAnalyzer.flakinessHtml(suites);
+		if (!retriedTests.isEmpty()) {
+			extent.setTestRunnerOutput(retriedTests);
+		}
+		String slowestSteps = StepProfiler.slowestStepsHtml();
+		if (!slowestSteps.isEmpty()) {
+			extent.setTestRunnerOutput(slowestSteps);
+		}
+		Path suiteLog = ReportSpool.export(null, reportDirectory.resolve("logs"));
+		if (suiteLog != null) {
+			extent.setTestRunnerOutput(logLink(suiteLog, "Suite log"));
+		}
 		extent.flush();
+		ReportSpool.clear();
+	}
+
+	/**
+	 * Hand the finished test to the reporter thread.
+	 * 
+	 * @param result the finished test
+	 * @param status status of the test
+	 */
+	private void streamTestNode(ITestResult result, Status status) {
+		if (STREAMING && reporter != null) {
+			nodes.add(new Node(result, status));
+		}
+	}
+
+	/**
+	 * Add the tests to the report as they arrive, and write the report when tests were added and it has not been
+	 * written for a while, until the report is generated. Only this thread touches the report while it runs.
+	 */
+	private void report() {
+		long lastFlush = System.currentTimeMillis();
+		boolean changed = false;
+		try {
+			while (true) {
+				Node node = changed
+						? nodes.poll(Math.max(1, lastFlush + FLUSH_MILLIS - System.currentTimeMillis()),
+								TimeUnit.MILLISECONDS)
+						: nodes.take();
+				if (node == END) {
+					return;
+				}
+				if (node != null) {
+					try {
+						addTestNode(node.result, node.status);
+						ReportSpool.delete(node.result);
+						changed = true;
+					} catch (RuntimeException e) {
+						Log.error("[Report] Unable to add the test [" + node.result.getName() + "] to the report", e);
+					}
+				}
+				long now = System.currentTimeMillis();
+				if (changed && now - lastFlush >= FLUSH_MILLIS) {
+					extent.flush();
+					lastFlush = now;
+					changed = false;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Let the reporter thread add the tests it was handed, and wait for it to finish.
+	 */
+	private void stopReporter() {
+		if (reporter == null) {
+			return;
+		}
+		nodes.add(END);
+		try {
+			reporter.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		reporter = null;
 	}
 
 	/**
 	 * To initialize all the report's elements.
 	 * 
-	 * @param xmlSuites all the executed suites
+	 * @param suiteName name of the executed suite
 	 */
-	private void init(List<XmlSuite> xmlSuites) {
-		String suiteName = xmlSuites.get(0).getName();
-		Path report = Paths.get(System.getProperty("user.dir"), "test-output",
-				"JupiterToyShop_" + suiteName + ".html");
+	private void init(String suiteName) {
+		this.suiteName = suiteName;
+		report = Paths.get(System.getProperty("user.dir"), "test-output", "JupiterToyShop_" + suiteName + ".html");
+		reportDirectory = report.getParent();
 		if (Files.notExists(report.getParent(), NOFOLLOW_LINKS)) {
 			try {
 				Files.createDirectory(report.getParent());
@@ -81,6 +243,13 @@ public final class TestReporter implements IReporter {
 				e.printStackTrace();
 			}
 		}
+		newReport();
+	}
+
+	/**
+	 * Start the report, with links to the parts already moved aside.
+	 */
+	private void newReport() {
 		ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(report.toString());
 		htmlReporter.config().setDocumentTitle("Jupiter Toy Shop: " + suiteName);
 		htmlReporter.config().setReportName(suiteName);
@@ -99,6 +268,12 @@ public final class TestReporter implements IReporter {
 		extent.setSystemInfo("Operating System", operatingSystem);
 		extent.setSystemInfo("System Architecture", systemArchitecture);
 		extent.setSystemInfo("Browser Selection", browser.orElse("chrome").toUpperCase());
+		extent.setSystemInfo("Launch Profile", LaunchProfile.current().toString());
+		if (!parts.isEmpty()) {
+			extent.setTestRunnerOutput("<b>Earlier tests</b> (" + CHUNK_SIZE + " per part)<table class='table table-sm'>"
+					+ "<tr><th>Part</th><th>Tests</th><th>Passed</th><th>Failed</th><th>Skipped</th></tr>"
+					+ String.join("", parts) + "</table>");
+		}
 	}
 
 	/**
@@ -110,33 +285,115 @@ public final class TestReporter implements IReporter {
 	private void buildTestNodes(IResultMap tests, Status status) {
 		SortedSet<ITestResult> results = new TreeSet<ITestResult>();
 		tests.getAllResults().forEach(results::add);
-		if (tests.size() > 0) {
-			for (ITestResult result : results) {
-				ExtentTest test = extent
-						.createTest(result.getTestContext().getCurrentXmlTest().getName() + " - " + result.getName());
-				Throwable throwable = result.getThrowable();
-				Object[] parameters = result.getParameters();
-				if (parameters.length > 0) {
-					String params = Arrays.stream(parameters).map(Object::toString).collect(joining(", "));
-					test.info(params);
-				}
-				Reporter.getOutput(result).forEach(test::info);
-				test.log(status, "Test [<b>" + result.getName() + "</b>] " + status.toString() + "ed!");
-				if (throwable != null) {
-					try {
-						String base64String = result.getAttribute("failureScreenshot").toString();
-						MediaEntityModelProvider provider = MediaEntityBuilder
-								.createScreenCaptureFromBase64String(base64String).build();
-						test.log(status, throwable, provider);
-					} catch (IOException e) {
-						Log.error("Unable to add screenshot to extent report", e);
-					}
-				}
+		for (ITestResult result : results) {
+			addTestNode(result, status);
+		}
+	}
+
+	/**
+	 * Add a test executed to the report, and move the report aside as a part once it holds a chunk of tests.
+	 * 
+	 * @param result the test executed
+	 * @param status status of the test executed
+	 */
+	private void addTestNode(ITestResult result, Status status) {
+		buildTestNode(result, status);
+		chunkTests++;
+		if (status == PASS) {
+			chunkPassed++;
+		} else if (status == FAIL) {
+			chunkFailed++;
+		} else {
+			chunkSkipped++;
+		}
+		if (CHUNK_SIZE > 0 && chunkTests >= CHUNK_SIZE) {
+			rollOver();
+		}
+	}
+
+	/**
+	 * Write the full report, move it aside as the next part and start a new report linking to all the parts, so the
+	 * tests of the finished part can be freed.
+	 */
+	private void rollOver() {
+		extent.flush();
+		String name = report.getFileName().toString().replaceFirst("\\.html$", "");
+		Path part = reportDirectory.resolve(name + "_part" + (parts.size() + 1) + ".html");
+		try {
+			Files.move(report, part, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			Log.error("[Report] Unable to move the report to [" + part + "]", e);
+			return;
+		}
+		String link = part.getFileName().toString().replace(" ", "%20");
+		parts.add("<tr><td><a href='" + link + "' target='_blank'>Part " + (parts.size() + 1) + "</a></td><td>"
+				+ chunkTests + "</td><td>" + chunkPassed + "</td><td>" + chunkFailed + "</td><td>"
+				+ chunkSkipped + "</td></tr>");
+		chunkTests = 0;
+		chunkPassed = 0;
+		chunkFailed = 0;
+		chunkSkipped = 0;
+		newReport();
+	}
 
-				test.getModel().setStartTime(this.getTime(result.getStartMillis()));
-				test.getModel().setEndTime(this.getTime(result.getEndMillis()));
+	/**
+	 * Build the report for a test executed.
+	 * 
+	 * @param result the test executed
+	 * @param status status of the test executed
+	 */
+	private void buildTestNode(ITestResult result, Status status) {
+		ExtentTest test = extent
+				.createTest(result.getTestContext().getCurrentXmlTest().getName() + " - " + result.getName());
+		Throwable throwable = result.getThrowable();
+		Object[] parameters = result.getParameters();
+		if (parameters.length > 0) {
+			String params = Arrays.stream(parameters).map(Object::toString).collect(joining(", "));
+			test.info(params);
+		}
+		Path log = ReportSpool.export(result, reportDirectory.resolve("logs"));
+		if (log != null) {
+			test.info(logLink(log, "Test log"));
+		}
+		Profile profile = StepProfiler.take(result);
+		if (profile != null) {
+			test.info(profile.toHtml());
+		}
+		RunHistory.Regression regression = history.record(result, status, profile);
+		if (regression != null) {
+			test.warning(regression.toString());
+		}
+		if (result.wasRetried()) {
+			test.log(status, "Test [<b>" + result.getName() + "</b>] failed and was retried");
+		} else {
+			test.log(status, "Test [<b>" + result.getName() + "</b>] " + status.toString() + "ed!");
+		}
+		if (throwable != null) {
+			test.log(status, throwable);
+			StoredScreenshot screenshot = Screenshot.stored(result.getAttribute("failureScreenshot"));
+			if (screenshot != null) {
+				test.log(status, screenshot.toHtml(reportDirectory));
+			}
+			StoredScreenshot screencast = Screenshot.stored(result.getAttribute("failureScreencast"));
+			if (screencast != null) {
+				test.log(status, "Last seconds before the failure:<br />" + screencast.toHtml(reportDirectory));
 			}
 		}
+
+		test.getModel().setStartTime(this.getTime(result.getStartMillis()));
+		test.getModel().setEndTime(this.getTime(result.getEndMillis()));
+	}
+
+	/**
+	 * Get the link to a log exported next to the report.
+	 * 
+	 * @param log  exported log
+	 * @param name name of the link
+	 * @return html of the link
+	 */
+	private String logLink(Path log, String name) {
+		return "<a href='" + reportDirectory.relativize(log).toString().replace('\\', '/') + "' target='_blank'>" + name
+				+ "</a>";
 	}
 
 	/**
@@ -149,4 +406,19 @@ public final class TestReporter implements IReporter {
 		return Date.from(Instant.ofEpochMilli(millis));
 	}
 
+	/**
+	 * A finished test waiting to be added to the report.
+	 */
+	private static final class Node {
+
+		private final ITestResult result;
+		private final Status status;
+
+		private Node(ITestResult result, Status status) {
+			this.result = result;
+			this.status = status;
+		}
+
+	}
+
 }
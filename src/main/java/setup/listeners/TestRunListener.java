@@ -1,15 +1,12 @@
 package setup.listeners;
 
-import org.apache.commons.io.FileUtils;
 import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
+import setup.config.DriverFactory;
 import setup.logger.Log;
-import setup.utilities.Screenshot;
-
-import java.io.File;
-import java.io.IOException;
+import setup.utilities.Screencast;
 
 /**
  * Listener class to log the execution details of every test.
@@ -20,19 +17,22 @@ public final class TestRunListener implements ITestListener, ISuiteListener {
 	@Override
 	public void onTestStart(ITestResult result) {
 		Log.info("Execution of the test [" + result.getName() + "] has been started.");
+		Screencast.discard(DriverFactory.currentDriver());
 	}
 
 	@Override
 	public void onTestSuccess(ITestResult result) {
+		Screencast.discard(DriverFactory.currentDriver());
 	}
 
 	@Override
 	public void onTestFailure(ITestResult result) {
-		result.setAttribute("failureScreenshot", Screenshot.takeScreenShot("Failure_" + result.getName()));
+		FailureArtifacts.capture(result);
 	}
 
 	@Override
 	public void onTestSkipped(ITestResult result) {
+		Screencast.discard(DriverFactory.currentDriver());
 	}
 
 	@Override
@@ -42,14 +42,6 @@ public final class TestRunListener implements ITestListener, ISuiteListener {
 
 	@Override
 	public void onStart(ITestContext context) {
-		//Delete Existing Report & logs
-		String PATH = System.getProperty("user.dir") + "/test-output/";
-		try {
-			FileUtils.deleteDirectory(new File(PATH));
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-		
 		Log.info("About to begin executing Test [" + context.getName() + "]");
 	}
 
@@ -1,9 +1,20 @@
 package setup.logger;
 
-import org.testng.Reporter;
+import static org.apache.log4j.Level.DEBUG;
+import static org.apache.log4j.Level.ERROR;
+import static org.apache.log4j.Level.FATAL;
+import static org.apache.log4j.Level.INFO;
+import static org.apache.log4j.Level.WARN;
+
+import java.util.function.Supplier;
+
+import org.apache.log4j.Level;
 
 /**
- * Log class to provide logging capabilities.
+ * Log class to provide logging capabilities. The level is checked before the message is built, and the message is
+ * written on a background thread. Templates replace each {} with the next argument, and suppliers are only called
+ * when the level is enabled; both are formatted on the background thread, so the arguments should not be changed
+ * after logging them.
  *
  */
 public final class Log {
@@ -17,8 +28,26 @@ public final class Log {
 	 * @param message information message
 	 */
 	public static void info(String message) {
-		LogConfig.getLogger().info(message);
-		Reporter.log(message + "<br />");
+		log(INFO, message, null, null, null);
+	}
+
+	/**
+	 * Provides the information logs.
+	 * 
+	 * @param template  information message, with a {} for each argument
+	 * @param arguments values of the message
+	 */
+	public static void info(String template, Object... arguments) {
+		log(INFO, template, arguments, null, null);
+	}
+
+	/**
+	 * Provides the information logs.
+	 * 
+	 * @param message supplier of the information message
+	 */
+	public static void info(Supplier<String> message) {
+		log(INFO, null, null, message, null);
 	}
 
 	/**
@@ -28,8 +57,17 @@ public final class Log {
 	 * @param error   the exception to log, including its stack trace
 	 */
 	public static void error(String message, Throwable error) {
-		LogConfig.getLogger().error(message, error);
-		Reporter.log(message + "<br />");
+		log(ERROR, message, null, null, error);
+	}
+
+	/**
+	 * Provides the error logs.
+	 * 
+	 * @param message supplier of the error message
+	 * @param error   the exception to log, including its stack trace
+	 */
+	public static void error(Supplier<String> message, Throwable error) {
+		log(ERROR, null, null, message, error);
 	}
 
 	/**
@@ -38,8 +76,26 @@ public final class Log {
 	 * @param message warning message
 	 */
 	public static void warn(String message) {
-		LogConfig.getLogger().warn(message);
-		Reporter.log(message + "<br />");
+		log(WARN, message, null, null, null);
+	}
+
+	/**
+	 * Provides the warning logs.
+	 * 
+	 * @param template  warning message, with a {} for each argument
+	 * @param arguments values of the message
+	 */
+	public static void warn(String template, Object... arguments) {
+		log(WARN, template, arguments, null, null);
+	}
+
+	/**
+	 * Provides the warning logs.
+	 * 
+	 * @param message supplier of the warning message
+	 */
+	public static void warn(Supplier<String> message) {
+		log(WARN, null, null, message, null);
 	}
 
 	/**
@@ -48,8 +104,26 @@ public final class Log {
 	 * @param message debug message
 	 */
 	public static void debug(String message) {
-		LogConfig.getLogger().debug(message);
-		Reporter.log(message + "<br />");
+		log(DEBUG, message, null, null, null);
+	}
+
+	/**
+	 * Provides the debug logs.
+	 * 
+	 * @param template  debug message, with a {} for each argument
+	 * @param arguments values of the message
+	 */
+	public static void debug(String template, Object... arguments) {
+		log(DEBUG, template, arguments, null, null);
+	}
+
+	/**
+	 * Provides the debug logs.
+	 * 
+	 * @param message supplier of the debug message
+	 */
+	public static void debug(Supplier<String> message) {
+		log(DEBUG, null, null, message, null);
 	}
 
 	/**
@@ -59,8 +133,30 @@ public final class Log {
 	 * @param error   the exception to log, including its stack trace
 	 */
 	public static void fatal(String message, Throwable error) {
-		LogConfig.getLogger().fatal(message, error);
-		Reporter.log(message + "<br />");
+		log(FATAL, message, null, null, error);
+	}
+
+	/**
+	 * Wait until every message logged so far has been written, e.g. before the reporter output is read.
+	 */
+	public static void flush() {
+		LogWriter.flush();
+	}
+
+	/**
+	 * Hand the message to the log writer if the level is enabled.
+	 * 
+	 * @param level     level of the message
+	 * @param message   message, or the template of the message
+	 * @param arguments values of the template, or null
+	 * @param supplier  supplier of the message, or null
+	 * @param error     the exception to log, or null
+	 */
+	private static void log(Level level, String message, Object[] arguments, Supplier<String> supplier,
+			Throwable error) {
+		if (LogConfig.getLogger().isEnabledFor(level)) {
+			LogWriter.submit(level, message, arguments, supplier, error);
+		}
 	}
 
 }
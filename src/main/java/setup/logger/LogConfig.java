@@ -11,15 +11,18 @@ import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.FileAppender;
 import org.apache.log4j.Layout;
 import org.apache.log4j.Logger;
+import org.apache.log4j.Level;
 import org.apache.log4j.PatternLayout;
 
+import setup.utilities.Configuration;
+
 /**
  * Configuration of the logs.
  *
  */
 public class LogConfig {
 
-	private static Logger log;
+	private static volatile Logger log;
 
 	private LogConfig() {
 	}
@@ -45,7 +48,7 @@ public class LogConfig {
 		logger.addAppender(logAppender);
 		ConsoleAppender consoleAppender = new ConsoleAppender(layout);
 		logger.addAppender(consoleAppender);
-		logger.setLevel(DEBUG);
+		logger.setLevel(Level.toLevel(Configuration.get("logLevel", DEBUG.toString()), DEBUG));
 		return logger;
 	}
 
@@ -66,7 +69,11 @@ public class LogConfig {
 	 */
 	public static Logger getLogger() {
 		if (log == null) {
-			initLogs();
+			synchronized (LogConfig.class) {
+				if (log == null) {
+					initLogs();
+				}
+			}
 		}
 		return log;
 	}
@@ -0,0 +1,137 @@
+package setup.logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * To merge the per-thread structured logs of a run into one timeline, in the order the events were logged. Records are
+ * ordered by the sequence number taken when the event was logged, not by the wall clock, which can step back and
+ * ties at millisecond resolution. A thread writes its records in the order it logged them, so each file is already
+ * in order and the files are merged as streams, never loaded into memory.
+ * <p>
+ * Usage: {@code LogTimeline [run folder] [output file]}. The run folder defaults to the latest run in the structured
+ * log folder and the output file to <b>timeline.jsonl</b> in the run folder.
+ *
+ */
+public final class LogTimeline {
+
+	private static final String TIMELINE = "timeline.jsonl";
+	private static final String SEQUENCE = "{\"seq\":";
+
+	private LogTimeline() {
+	}
+
+	/**
+	 * Merge the structured logs of a run.
+	 * 
+	 * @param args run folder and output file, both optional
+	 * @throws IOException if the logs cannot be read or the timeline cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		Path run = args.length > 0 ? Paths.get(args[0]) : latestRun();
+		Path timeline = args.length > 1 ? Paths.get(args[1]) : run.resolve(TIMELINE);
+		long records = merge(run, timeline);
+		System.out.println("Merged " + records + " record(s) into " + timeline);
+	}
+
+	/**
+	 * Merge the per-thread logs of the run folder into the timeline file.
+	 * 
+	 * @param run      run folder
+	 * @param timeline timeline file to write
+	 * @return number of records merged
+	 * @throws IOException if the logs cannot be read or the timeline cannot be written
+	 */
+	public static long merge(Path run, Path timeline) throws IOException {
+		List<Path> files;
+		try (Stream<Path> list = Files.list(run)) {
+			files = list.filter(file -> file.toString().endsWith(".jsonl") && !file.getFileName().toString().equals(TIMELINE))
+					.sorted().collect(Collectors.toList());
+		}
+		List<BufferedReader> readers = new ArrayList<>();
+		PriorityQueue<Cursor> cursors = new PriorityQueue<>(
+				Comparator.comparingLong((Cursor cursor) -> cursor.sequence).thenComparingInt(cursor -> cursor.file));
+		long records = 0;
+		try (BufferedWriter out = Files.newBufferedWriter(timeline, StandardCharsets.UTF_8)) {
+			for (Path file : files) {
+				BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+				readers.add(reader);
+				advance(new Cursor(readers.size() - 1, reader), cursors);
+			}
+			Cursor cursor;
+			while ((cursor = cursors.poll()) != null) {
+				out.write(cursor.line);
+				out.newLine();
+				records++;
+				advance(cursor, cursors);
+			}
+		} finally {
+			for (BufferedReader reader : readers) {
+				reader.close();
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Read the next record of the file and queue it, unless the file is finished.
+	 * 
+	 * @param cursor  position in the file
+	 * @param cursors cursors ordered by the sequence number of their record
+	 * @throws IOException if the file cannot be read
+	 */
+	private static void advance(Cursor cursor, PriorityQueue<Cursor> cursors) throws IOException {
+		String line;
+		while ((line = cursor.reader.readLine()) != null) {
+			if (line.startsWith(SEQUENCE)) {
+				int end = line.indexOf(',');
+				cursor.line = line;
+				cursor.sequence = Long.parseLong(line.substring(SEQUENCE.length(), end < 0 ? line.length() - 1 : end));
+				cursors.add(cursor);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Get the latest run in the structured log folder.
+	 * 
+	 * @return run folder
+	 * @throws IOException if there is no run
+	 */
+	private static Path latestRun() throws IOException {
+		try (Stream<Path> runs = Files.list(StructuredLog.LOG_DIRECTORY)) {
+			return runs.filter(Files::isDirectory).max(Comparator.comparing(Path::getFileName))
+					.orElseThrow(() -> new IOException("No structured logs in " + StructuredLog.LOG_DIRECTORY));
+		}
+	}
+
+	/**
+	 * The current record of a per-thread log.
+	 */
+	private static final class Cursor {
+
+		private final int file;
+		private final BufferedReader reader;
+		private String line;
+		private long sequence;
+
+		private Cursor(int file, BufferedReader reader) {
+			this.file = file;
+			this.reader = reader;
+		}
+
+	}
+
+}
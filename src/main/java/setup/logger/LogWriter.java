@@ -0,0 +1,330 @@
+package setup.logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LocationInfo;
+import org.apache.log4j.spi.LoggingEvent;
+import org.apache.log4j.spi.ThrowableInformation;
+import org.testng.ITestResult;
+import org.testng.Reporter;
+import setup.config.DriverFactory;
+import setup.utilities.Configuration;
+import setup.utilities.StepProfiler;
+import setup.utilities.StepProfiler.Span;
+
+/**
+ * To write the log events on a background thread. The calling thread only claims a slot of a bounded lock-free ring
+ * buffer (Vyukov's bounded queue) and fills it; formatting the message and writing it to the log4j appenders and the
+ * reporter output happen on the writer thread, which sleeps until an event is handed to it. When the buffer is full the
+ * calling thread waits for a free slot, so no event is dropped and the events of a thread are written in order.
+ *
+ */
+final class LogWriter {
+
+	private static final String FQCN = Log.class.getName();
+	private static final long FULL_WAIT_NANOS = 100_000;
+	private static final long FLUSH_TIMEOUT_NANOS = 10_000_000_000L;
+
+	private static final Slot[] slots;
+	private static final int mask;
+	private static final AtomicLong enqueuePosition = new AtomicLong();
+	private static final AtomicLong order = new AtomicLong();
+	private static long dequeuePosition;
+	private static volatile long written;
+	private static volatile boolean sleeping;
+	private static final Thread writer;
+
+	static {
+		int capacity = capacity(Configuration.get("logBufferSize", "8192"));
+		slots = new Slot[capacity];
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = new Slot(i);
+		}
+		mask = capacity - 1;
+		if (capacity > 1) {
+			writer = new Thread(LogWriter::drain, "log-writer");
+			writer.setDaemon(true);
+			writer.start();
+			Runtime.getRuntime().addShutdownHook(new Thread(LogWriter::flush, "log-flush"));
+		} else {
+			writer = null;
+		}
+	}
+
+	private LogWriter() {
+	}
+
+	/**
+	 * Hand the event to the writer thread, waiting for a free slot when the buffer is full. The event is written on
+	 * the calling thread if there is no writer thread, or if it is the writer thread itself.
+	 * 
+	 * @param level     level of the event
+	 * @param message   message, or the template of the message when there are arguments
+	 * @param arguments arguments of the template, or null
+	 * @param supplier  supplier of the message, or null
+	 * @param error     the exception to log, or null
+	 */
+	static void submit(Level level, String message, Object[] arguments, Supplier<String> supplier, Throwable error) {
+		long sequence = order.incrementAndGet();
+		long timestamp = System.currentTimeMillis();
+		String threadName = Thread.currentThread().getName();
+		ITestResult result = ReportSpool.owner(Reporter.getCurrentTestResult());
+		String sessionId = DriverFactory.currentSessionId();
+		Span step = StepProfiler.currentSpan();
+		if (writer == null || Thread.currentThread() == writer) {
+			write(level, format(message, arguments, supplier), error, sequence, timestamp, threadName, result,
+					sessionId, step);
+			return;
+		}
+		while (!offer(level, message, arguments, supplier, error, sequence, timestamp, threadName, result, sessionId,
+				step)) {
+			if (!writer.isAlive()) {
+				write(level, format(message, arguments, supplier), error, sequence, timestamp, threadName, result,
+						sessionId, step);
+				return;
+			}
+			LockSupport.unpark(writer);
+			LockSupport.parkNanos(FULL_WAIT_NANOS);
+		}
+		if (sleeping) {
+			LockSupport.unpark(writer);
+		}
+	}
+
+	/**
+	 * Wait until every event handed to the writer so far has been written.
+	 */
+	static void flush() {
+		if (writer == null) {
+			return;
+		}
+		long target = enqueuePosition.get();
+		long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+		while (written < target && System.nanoTime() < deadline) {
+			LockSupport.unpark(writer);
+			LockSupport.parkNanos(FULL_WAIT_NANOS);
+		}
+	}
+
+	/**
+	 * Claim the next free slot and fill it with the event.
+	 * 
+	 * @param level      level of the event
+	 * @param message    message, or the template of the message
+	 * @param arguments  arguments of the template, or null
+	 * @param supplier   supplier of the message, or null
+	 * @param error      the exception to log, or null
+	 * @param sequence   order in which the event was logged in the JVM
+	 * @param timestamp  time the event was logged
+	 * @param threadName thread the event was logged from
+	 * @param result     test the event was logged from, or null
+	 * @param sessionId  browser session of the thread the event was logged from, or null
+	 * @param step       step of the test the event was logged at, or null
+	 * @return true if the event was queued, false if the buffer is full
+	 */
+	private static boolean offer(Level level, String message, Object[] arguments, Supplier<String> supplier,
+			Throwable error, long sequence, long timestamp, String threadName, ITestResult result, String sessionId,
+			Span step) {
+		long position = enqueuePosition.get();
+		while (true) {
+			Slot slot = slots[(int) position & mask];
+			long difference = slot.sequence - position;
+			if (difference == 0 && enqueuePosition.compareAndSet(position, position + 1)) {
+				slot.level = level;
+				slot.message = message;
+				slot.arguments = arguments;
+				slot.supplier = supplier;
+				slot.error = error;
+				slot.order = sequence;
+				slot.timestamp = timestamp;
+				slot.threadName = threadName;
+				slot.result = result;
+				slot.sessionId = sessionId;
+				slot.step = step;
+				slot.sequence = position + 1;
+				return true;
+			}
+			if (difference < 0) {
+				return false;
+			}
+			position = enqueuePosition.get();
+		}
+	}
+
+	/**
+	 * Write the queued events for as long as the JVM runs, parking whenever the buffer is empty until an event is
+	 * handed over. The flag is raised before checking the buffer again, so an event queued meanwhile either is seen
+	 * or sees the flag and unparks the writer.
+	 */
+	private static void drain() {
+		while (true) {
+			Slot slot = slots[(int) dequeuePosition & mask];
+			if (slot.sequence != dequeuePosition + 1) {
+				sleeping = true;
+				if (slot.sequence != dequeuePosition + 1) {
+					LockSupport.park();
+				}
+				sleeping = false;
+				continue;
+			}
+			Level level = slot.level;
+			String message = slot.message;
+			Object[] arguments = slot.arguments;
+			Supplier<String> supplier = slot.supplier;
+			Throwable error = slot.error;
+			long sequence = slot.order;
+			long timestamp = slot.timestamp;
+			String threadName = slot.threadName;
+			ITestResult result = slot.result;
+			String sessionId = slot.sessionId;
+			Span step = slot.step;
+			slot.message = null;
+			slot.arguments = null;
+			slot.supplier = null;
+			slot.error = null;
+			slot.result = null;
+			slot.sessionId = null;
+			slot.step = null;
+			slot.sequence = dequeuePosition + slots.length;
+			dequeuePosition++;
+			try {
+				write(level, format(message, arguments, supplier), error, sequence, timestamp, threadName, result,
+						sessionId, step);
+			} catch (RuntimeException e) {
+				System.err.println("Unable to write the log event...");
+				e.printStackTrace();
+			}
+			written = dequeuePosition;
+		}
+	}
+
+	/**
+	 * Write the event to the log4j appenders, the structured log of its thread and the spooled reporter output of the
+	 * test it was logged from.
+	 * 
+	 * @param level      level of the event
+	 * @param message    formatted message
+	 * @param error      the exception to log, or null
+	 * @param sequence   order in which the event was logged in the JVM
+	 * @param timestamp  time the event was logged
+	 * @param threadName thread the event was logged from
+	 * @param result     test the event was logged from, or null
+	 * @param sessionId  browser session of the thread the event was logged from, or null
+	 * @param step       step of the test the event was logged at, or null
+	 */
+	private static void write(Level level, String message, Throwable error, long sequence, long timestamp,
+			String threadName, ITestResult result, String sessionId, Span step) {
+		Logger logger = LogConfig.getLogger();
+		logger.callAppenders(new LoggingEvent(FQCN, logger, timestamp, level, message, threadName,
+				error == null ? null : new ThrowableInformation(error), null, location(level), null));
+		StructuredLog.write(level, message, error, sequence, timestamp, threadName, result, sessionId, step);
+		ReportSpool.append(result, message + "<br />");
+	}
+
+	/**
+	 * Build the message of the event, replacing each {} of the template with the next argument.
+	 * 
+	 * @param message   message, or the template of the message
+	 * @param arguments arguments of the template, or null
+	 * @param supplier  supplier of the message, or null
+	 * @return formatted message
+	 */
+	static String format(String message, Object[] arguments, Supplier<String> supplier) {
+		if (supplier != null) {
+			return supplier.get();
+		}
+		if (arguments == null || arguments.length == 0) {
+			return message;
+		}
+		StringBuilder formatted = new StringBuilder(message.length() + 16 * arguments.length);
+		int start = 0;
+		int argument = 0;
+		int placeholder;
+		while (argument < arguments.length && (placeholder = message.indexOf("{}", start)) != -1) {
+			formatted.append(message, start, placeholder).append(arguments[argument++]);
+			start = placeholder + 2;
+		}
+		return formatted.append(message, start, message.length()).toString();
+	}
+
+	/**
+	 * Get the location reported for the event. The layout prints the method name, which was always the method of
+	 * {@link Log} that logged the event, so it is not taken from the stack.
+	 * 
+	 * @param level level of the event
+	 * @return location of the event
+	 */
+	private static LocationInfo location(Level level) {
+		switch (level.toInt()) {
+		case Level.DEBUG_INT:
+			return Locations.DEBUG;
+		case Level.WARN_INT:
+			return Locations.WARN;
+		case Level.ERROR_INT:
+			return Locations.ERROR;
+		case Level.FATAL_INT:
+			return Locations.FATAL;
+		default:
+			return Locations.INFO;
+		}
+	}
+
+	/**
+	 * Get the buffer capacity, rounded up to a power of two. A capacity of 0 or 1 writes every event on the calling
+	 * thread.
+	 * 
+	 * @param size configured buffer size
+	 * @return buffer capacity
+	 */
+	private static int capacity(String size) {
+		int requested = 8192;
+		try {
+			requested = Integer.parseInt(size);
+		} catch (NumberFormatException e) {
+			System.err.println("Property [logBufferSize] is not a number, defaulting to '" + requested + "'...");
+		}
+		return requested <= 1 ? 1 : Integer.highestOneBit(Math.min(requested - 1, 1 << 29)) << 1;
+	}
+
+	/**
+	 * A slot of the ring buffer, reused for every event that passes through it.
+	 */
+	private static final class Slot {
+
+		private volatile long sequence;
+		private Level level;
+		private String message;
+		private Object[] arguments;
+		private Supplier<String> supplier;
+		private Throwable error;
+		private long order;
+		private long timestamp;
+		private String threadName;
+		private ITestResult result;
+		private String sessionId;
+		private Span step;
+
+		private Slot(long sequence) {
+			this.sequence = sequence;
+		}
+
+	}
+
+	/**
+	 * The locations of the {@link Log} methods.
+	 */
+	private static final class Locations {
+
+		private static final LocationInfo DEBUG = new LocationInfo("Log.java", FQCN, "debug", "?");
+		private static final LocationInfo INFO = new LocationInfo("Log.java", FQCN, "info", "?");
+		private static final LocationInfo WARN = new LocationInfo("Log.java", FQCN, "warn", "?");
+		private static final LocationInfo ERROR = new LocationInfo("Log.java", FQCN, "error", "?");
+		private static final LocationInfo FATAL = new LocationInfo("Log.java", FQCN, "fatal", "?");
+
+	}
+
+}
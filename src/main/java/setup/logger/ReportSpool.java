@@ -0,0 +1,297 @@
+package setup.logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.testng.ITestResult;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * To keep the reporter output of every test on disk instead of in memory until the report is generated. Each test
+ * has its own file of length-prefixed UTF-8 messages, written as gzip segments: a segment is closed when the file has
+ * not been written for a while and another test needs the handle, and a later message starts a new segment, which
+ * gzip reads back as one stream. Output logged outside of a test goes to the suite file, and output logged by an
+ * {@code @AfterMethod} to the file of the test it ran after. The report links the output exported next to it rather
+ * than holding it, so the messages are never all in memory. Output logged for a test once it has been exported, e.g.
+ * its teardown or the reset of its browser, is appended to the exported page.
+ *
+ */
+public final class ReportSpool {
+
+	private static final Path SPOOL_DIRECTORY = Paths.get(System.getProperty("user.dir"), "target", "reporter-spool",
+			ManagementFactory.getRuntimeMXBean().getName().replaceAll("\\W", "_"));
+	private static final int MAX_OPEN_SEGMENTS = 32;
+	private static final Map<ITestResult, Integer> testIds = new IdentityHashMap<>();
+	private static final Map<Integer, Path> exportedPages = new HashMap<>();
+	private static final ThreadLocal<ITestResult> lastTest = new ThreadLocal<>();
+	private static int lastTestId;
+	private static final Map<Integer, DataOutputStream> openSegments = new LinkedHashMap<Integer, DataOutputStream>(
+			16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, DataOutputStream> eldest) {
+			if (size() > MAX_OPEN_SEGMENTS) {
+				close(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+	};
+
+	private ReportSpool() {
+	}
+
+	/**
+	 * Get the test whose output a message logged on this thread belongs to: a test method's own, the last test of the
+	 * thread for an {@code @AfterMethod}, and the suite output for the other configuration methods. Called on the
+	 * thread the message was logged from.
+	 * 
+	 * @param result current result of the thread, or null
+	 * @return test the message belongs to, or null for the suite output
+	 */
+	static ITestResult owner(ITestResult result) {
+		if (result == null) {
+			return null;
+		}
+		if (result.getMethod().isTest()) {
+			lastTest.set(result);
+			return result;
+		}
+		return result.getMethod().isAfterMethodConfiguration() ? lastTest.get() : null;
+	}
+
+	/**
+	 * Append a message to the output of the test, or to its page if it has been exported already.
+	 * 
+	 * @param result  test the message was logged from, or null for the suite output
+	 * @param message message to append
+	 */
+	static synchronized void append(ITestResult result, String message) {
+		int id = idOf(result);
+		try {
+			Path page = exportedPages.get(id);
+			if (page != null) {
+				Files.write(page, (message + "\n").getBytes(StandardCharsets.UTF_8), APPEND);
+				return;
+			}
+			DataOutputStream out = openSegments.get(id);
+			if (out == null) {
+				Files.createDirectories(SPOOL_DIRECTORY);
+				out = new DataOutputStream(new BufferedOutputStream(
+						new GZIPOutputStream(Files.newOutputStream(file(id), CREATE, APPEND), 8192)));
+				openSegments.put(id, out);
+			}
+			byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		} catch (IOException e) {
+			System.err.println("Unable to spool the reporter output: " + message);
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Write the output of the test, in the order it was logged, to an html page in the folder, streaming it from the
+	 * spool so that it is never all in memory. The output logged while the page is written is added to it at the end,
+	 * and the output logged afterwards is appended to it directly.
+	 * 
+	 * @param result    test to export, or null for the suite output
+	 * @param directory folder to write the page to
+	 * @return the written page, or null if there is no output to export
+	 */
+	public static Path export(ITestResult result, Path directory) {
+		Log.flush();
+		int id;
+		Path file;
+		Path exporting;
+		synchronized (ReportSpool.class) {
+			id = idOf(result);
+			close(openSegments.remove(id));
+			file = file(id);
+			exporting = file.resolveSibling(file.getFileName() + ".exporting");
+			try {
+				if (Files.notExists(file)) {
+					return null;
+				}
+				Files.move(file, exporting, REPLACE_EXISTING);
+			} catch (IOException e) {
+				Log.error("Unable to export the spooled reporter output " + file, e);
+				return null;
+			}
+		}
+		Path page = directory.resolve(file.getFileName().toString().replace(".spool", ".html"));
+		try {
+			Files.createDirectories(directory);
+			try (BufferedWriter out = Files.newBufferedWriter(page, StandardCharsets.UTF_8)) {
+				out.write("<!DOCTYPE html><html><head><meta charset='UTF-8'></head><body style='font-family:monospace'>\n");
+				copy(exporting, out);
+			}
+			synchronized (ReportSpool.class) {
+				close(openSegments.remove(id));
+				if (Files.exists(file)) {
+					try (BufferedWriter out = Files.newBufferedWriter(page, StandardCharsets.UTF_8, APPEND)) {
+						copy(file, out);
+					}
+					Files.delete(file);
+				}
+				exportedPages.put(id, page);
+			}
+			Files.deleteIfExists(exporting);
+			return page;
+		} catch (IOException | UncheckedIOException e) {
+			Log.error("Unable to export the spooled reporter output to " + page, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Write the spooled messages of the file to the page, one per line.
+	 * 
+	 * @param file spool file to read
+	 * @param out  page to write to
+	 */
+	private static void copy(Path file, BufferedWriter out) {
+		read(file, message -> {
+			try {
+				out.write(message);
+				out.write('\n');
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Stream the spooled messages of the file, in the order they were logged.
+	 * 
+	 * @param file     spool file to read
+	 * @param consumer receiver of every message
+	 */
+	private static void read(Path file, Consumer<String> consumer) {
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 8192)))) {
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				byte[] bytes = new byte[length];
+				in.readFully(bytes);
+				consumer.accept(new String(bytes, StandardCharsets.UTF_8));
+			}
+		} catch (IOException e) {
+			Log.error("Unable to read the spooled reporter output from " + file, e);
+		}
+	}
+
+	/**
+	 * Delete the spooled output of the test, once it has been added to the report. The test keeps its id, so its later
+	 * output still goes to its exported page.
+	 * 
+	 * @param result test to delete
+	 */
+	public static void delete(ITestResult result) {
+		Path file;
+		synchronized (ReportSpool.class) {
+			Integer id = testIds.get(result);
+			if (id == null || exportedPages.containsKey(id)) {
+				return;
+			}
+			close(openSegments.remove(id));
+			file = file(id);
+		}
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			Log.error("Unable to delete the spooled reporter output " + file, e);
+		}
+	}
+
+	/**
+	 * Delete the spooled output of this run, once the report has been generated.
+	 */
+	public static void clear() {
+		synchronized (ReportSpool.class) {
+			for (Iterator<DataOutputStream> segments = openSegments.values().iterator(); segments.hasNext();) {
+				close(segments.next());
+				segments.remove();
+			}
+			testIds.clear();
+			exportedPages.clear();
+		}
+		if (Files.notExists(SPOOL_DIRECTORY)) {
+			return;
+		}
+		try (Stream<Path> files = Files.walk(SPOOL_DIRECTORY)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		} catch (IOException e) {
+			Log.error("Unable to delete the spooled reporter output in " + SPOOL_DIRECTORY, e);
+		}
+	}
+
+	/**
+	 * Get the spool id of the test, 0 being the suite output.
+	 * 
+	 * @param result test, or null for the suite output
+	 * @return spool id
+	 */
+	private static int idOf(ITestResult result) {
+		return result == null ? 0 : testIds.computeIfAbsent(result, test -> ++lastTestId);
+	}
+
+	/**
+	 * Get the spool file of the test.
+	 * 
+	 * @param id spool id
+	 * @return spool file
+	 */
+	private static Path file(int id) {
+		return SPOOL_DIRECTORY.resolve(id == 0 ? "suite.spool" : "test-" + id + ".spool");
+	}
+
+	/**
+	 * Close the segment, finishing its gzip member.
+	 * 
+	 * @param out segment to close, or null
+	 */
+	private static void close(DataOutputStream out) {
+		if (out == null) {
+			return;
+		}
+		try {
+			out.close();
+		} catch (IOException e) {
+			System.err.println("Unable to close the spooled reporter output...");
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package setup.logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Level;
+import org.testng.ITestResult;
+
+import setup.utilities.Configuration;
+import setup.utilities.Json;
+import setup.utilities.StepProfiler.Span;
+
+/**
+ * To write the log events as JSON lines, one file per thread that logged them, so that parallel threads never share
+ * a file. Every record carries the order in which it was logged in the JVM, the test, the browser session and the
+ * profiled step of the test it was logged at. The files of a run are merged into one timeline with
+ * {@link LogTimeline}.
+ *
+ */
+final class StructuredLog {
+
+	static final Path LOG_DIRECTORY = Paths.get(Configuration.get("structuredLogPath",
+			Paths.get(System.getProperty("user.dir"), "target", "structured-logs").toString()));
+	private static final boolean ENABLED = Boolean.parseBoolean(Configuration.get("structuredLog", "true"));
+	private static final Path RUN_DIRECTORY = LOG_DIRECTORY
+			.resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")));
+	private static final Map<String, Sink> sinks = new ConcurrentHashMap<>();
+
+	private StructuredLog() {
+	}
+
+	/**
+	 * Write the event to the file of the thread it was logged from.
+	 * 
+	 * @param level      level of the event
+	 * @param message    formatted message
+	 * @param error      the exception to log, or null
+	 * @param sequence   order in which the event was logged in the JVM
+	 * @param timestamp  time the event was logged
+	 * @param threadName thread the event was logged from
+	 * @param result     test the event was logged from, or null
+	 * @param sessionId  browser session of the thread, or null
+	 * @param step       step of the test the event was logged at, or null
+	 */
+	static void write(Level level, String message, Throwable error, long sequence, long timestamp, String threadName,
+			ITestResult result, String sessionId, Span step) {
+		if (!ENABLED) {
+			return;
+		}
+		Sink sink = sinks.computeIfAbsent(threadName, Sink::new);
+		StringBuilder record = new StringBuilder(160 + message.length());
+		record.append("{\"seq\":").append(sequence).append(",\"ts\":").append(timestamp).append(",\"time\":\"")
+				.append(Instant.ofEpochMilli(timestamp)).append("\",\"level\":\"").append(level)
+				.append("\",\"thread\":");
+		Json.quote(record, threadName).append(",\"test\":");
+		Json.quote(record, testId(result)).append(",\"session\":");
+		Json.quote(record, sessionId).append(",\"stepId\":").append(step == null ? "null" : step.getId())
+				.append(",\"step\":");
+		Json.quote(record, step == null ? null : step.getName()).append(",\"message\":");
+		Json.quote(record, message);
+		synchronized (sink) {
+			if (error != null) {
+				StringWriter stackTrace = new StringWriter();
+				error.printStackTrace(new PrintWriter(stackTrace));
+				Json.quote(record.append(",\"error\":"), stackTrace.toString());
+			}
+			record.append("}\n");
+			sink.write(record);
+		}
+	}
+
+	/**
+	 * Get the id of the test, unique for every invocation of a test method.
+	 * 
+	 * @param result test, or null
+	 * @return test id, or null when logged outside of a test
+	 */
+	private static String testId(ITestResult result) {
+		return result == null ? null : result.getMethod().getQualifiedName() + "@" + result.getStartMillis();
+	}
+
+	/**
+	 * The file of a thread.
+	 */
+	private static final class Sink {
+
+		private final String threadName;
+		private Writer out;
+
+		private Sink(String threadName) {
+			this.threadName = threadName;
+		}
+
+		/**
+		 * Append the record, opening the file on the first record and flushing after every record so that the file
+		 * is complete if the run is interrupted.
+		 * 
+		 * @param record JSON line
+		 */
+		private void write(CharSequence record) {
+			try {
+				if (out == null) {
+					Files.createDirectories(RUN_DIRECTORY);
+					out = new BufferedWriter(Files.newBufferedWriter(
+							RUN_DIRECTORY.resolve(threadName.replaceAll("[^\\w.-]", "_") + ".jsonl"),
+							StandardCharsets.UTF_8));
+				}
+				out.append(record);
+				out.flush();
+			} catch (IOException e) {
+				System.err.println("Unable to write the structured log of thread " + threadName + "...");
+				e.printStackTrace();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,202 @@
+package setup.utilities;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Wait;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * To wait for a condition with exponential backoff polling that starts from a few milliseconds and learns how long
+ * each condition usually takes to become true from the median of its last waits in the run.
+ *
+ */
+public final class AdaptiveWait implements Wait<WebDriver> {
+
+	private static final long MIN_POLL_MILLIS = Configuration.getInt("pollMinMillis", 5);
+	private static final long MAX_POLL_MILLIS = Configuration.getInt("pollMaxMillis", 500);
+	private static final int MAX_LEARNED_CONDITIONS = 10000;
+	private static final int SAMPLES = 9;
+	private static final Map<String, SettleTimes> settleTimes = new ConcurrentHashMap<>();
+
+	private final WebDriver driver;
+	private final Duration timeout;
+	private final Duration polling;
+
+	/**
+	 * Create a wait with adaptive polling.
+	 *
+	 * @param driver  web driver instance
+	 * @param timeout time to wait
+	 */
+	public AdaptiveWait(WebDriver driver, Duration timeout) {
+		this(driver, timeout, null);
+	}
+
+	/**
+	 * Create a wait that polls at a fixed interval, overriding the adaptive polling.
+	 *
+	 * @param driver  web driver instance
+	 * @param timeout time to wait
+	 * @param polling poll interval, or null to poll adaptively
+	 */
+	public AdaptiveWait(WebDriver driver, Duration timeout, Duration polling) {
+		this.driver = driver;
+		this.timeout = timeout;
+		this.polling = polling;
+	}
+
+	/**
+	 * Wait until the condition returns neither null nor false. The settle time is learned per expected condition,
+	 * which describes its locator, so a lambda condition should be waited with {@link #until(Function, String)}.
+	 *
+	 * @param <V>     the output to return
+	 * @param isTrue  condition to wait
+	 * @return output
+	 */
+	@Override
+	public <V> V until(Function<? super WebDriver, V> isTrue) {
+		return until(isTrue, keyOf(isTrue));
+	}
+
+	/**
+	 * Wait until the condition returns neither null nor false, learning its settle time under the description.
+	 *
+	 * @param <V>         the output to return
+	 * @param isTrue      condition to wait
+	 * @param description what the condition waits for, e.g. the locator and state
+	 * @return output
+	 */
+	public <V> V until(Function<? super WebDriver, V> isTrue, String description) {
+		String key = description;
+		long start = System.nanoTime();
+		long end = start + timeout.toNanos();
+		long sleepMillis = MIN_POLL_MILLIS;
+		SettleTimes learned = settleTimes.get(key);
+		long usualMillis = learned == null ? 0 : learned.median();
+		RuntimeException lastException = null;
+		while (true) {
+			try {
+				V value = isTrue.apply(driver);
+				if (isSatisfied(value)) {
+					learn(key, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+					return value;
+				}
+				lastException = null;
+			} catch (NotFoundException | StaleElementReferenceException e) {
+				lastException = e;
+			}
+			long remainingMillis = TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime());
+			if (remainingMillis <= 0) {
+				throw new TimeoutException("Expected condition failed: waiting for " + key + " (tried for "
+						+ timeout.getSeconds() + " second(s) with " + (polling == null ? "adaptive"
+								: polling.toMillis() + " milliseconds") + " polling)", lastException);
+			}
+			long pause;
+			if (polling != null) {
+				pause = polling.toMillis();
+			} else if (usualMillis > 0) {
+				// Sleep towards the time this condition usually takes, never longer than a poll, then back off from there
+				pause = Math.min(MAX_POLL_MILLIS, Math.max(MIN_POLL_MILLIS,
+						usualMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+				usualMillis = 0;
+			} else {
+				pause = sleepMillis;
+				sleepMillis = Math.min(sleepMillis * 2, MAX_POLL_MILLIS);
+			}
+			sleep(Math.min(pause, remainingMillis));
+		}
+	}
+
+	/**
+	 * Check whether the output of a condition ends the wait, i.e. it is neither null nor false.
+	 *
+	 * @param value output of the condition
+	 * @return true if satisfied, false otherwise
+	 */
+	static boolean isSatisfied(Object value) {
+		return value != null && (Boolean.class != value.getClass() || Boolean.TRUE.equals(value));
+	}
+
+	/**
+	 * Record how long the condition took to become true, keeping its last few times so that one slow wait does not
+	 * change its median.
+	 *
+	 * @param key           condition key
+	 * @param elapsedMillis time taken
+	 */
+	private static void learn(String key, long elapsedMillis) {
+		if (settleTimes.size() > MAX_LEARNED_CONDITIONS) {
+			settleTimes.clear();
+		}
+		settleTimes.computeIfAbsent(key, condition -> new SettleTimes()).add(elapsedMillis);
+	}
+
+	/**
+	 * Get the key under which the settle time of the condition is learned when no description is given. Expected
+	 * conditions describe their locator; lambdas are keyed by their call site.
+	 *
+	 * @param condition condition to wait
+	 * @return condition key
+	 */
+	private static String keyOf(Object condition) {
+		String description = condition.toString();
+		String identity = condition.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(condition));
+		return description.equals(identity) ? condition.getClass().getName() : description;
+	}
+
+	/**
+	 * Sleep between polls.
+	 *
+	 * @param millis time to sleep
+	 */
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TimeoutException("Interrupted while waiting for the condition", e);
+		}
+	}
+
+	/**
+	 * The last times a condition took to become true.
+	 */
+	private static final class SettleTimes {
+
+		private final long[] millis = new long[SAMPLES];
+		private int next;
+		private int count;
+
+		/**
+		 * Record a time, replacing the oldest one once full.
+		 *
+		 * @param elapsedMillis time taken
+		 */
+		private synchronized void add(long elapsedMillis) {
+			millis[next] = elapsedMillis;
+			next = (next + 1) % SAMPLES;
+			count = Math.min(count + 1, SAMPLES);
+		}
+
+		/**
+		 * Get the median of the recorded times.
+		 *
+		 * @return median time
+		 */
+		private synchronized long median() {
+			long[] sorted = Arrays.copyOf(millis, count);
+			Arrays.sort(sorted);
+			return sorted.length == 0 ? 0 : sorted[sorted.length / 2];
+		}
+
+	}
+
+}
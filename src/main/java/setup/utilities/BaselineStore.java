@@ -0,0 +1,65 @@
+package setup.utilities;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * To keep the visual baselines, one PNG per name, in the folder of the <b>visualBaselinePath</b> property (default
+ * <b>src/test/resources/baselines</b>). Running with <b>visualUpdateBaselines=true</b> records every screenshot as its
+ * new baseline.
+ *
+ */
+public final class BaselineStore {
+
+	private static final Path BASELINE_DIRECTORY = Paths.get(Configuration.get("visualBaselinePath",
+			Paths.get(System.getProperty("user.dir"), "src", "test", "resources", "baselines").toString()));
+
+	private BaselineStore() {
+	}
+
+	/**
+	 * Get the baseline of the name.
+	 * 
+	 * @param name baseline name
+	 * @return baseline as PNG bytes, or null if there is none
+	 * @throws IOException if the baseline cannot be read
+	 */
+	public static byte[] load(String name) throws IOException {
+		Path baseline = path(name);
+		return Files.exists(baseline) ? Files.readAllBytes(baseline) : null;
+	}
+
+	/**
+	 * Record the screenshot as the baseline of the name.
+	 * 
+	 * @param name       baseline name
+	 * @param screenshot screenshot as PNG bytes
+	 * @throws IOException if the baseline cannot be written
+	 */
+	public static void save(String name, byte[] screenshot) throws IOException {
+		Files.createDirectories(BASELINE_DIRECTORY);
+		Files.write(path(name), screenshot);
+	}
+
+	/**
+	 * Check whether the run records new baselines instead of comparing with them.
+	 * 
+	 * @return true if updating, false otherwise
+	 */
+	public static boolean isUpdating() {
+		return Boolean.parseBoolean(Configuration.get("visualUpdateBaselines", "false"));
+	}
+
+	/**
+	 * Get the baseline file of the name.
+	 * 
+	 * @param name baseline name
+	 * @return baseline path
+	 */
+	private static Path path(String name) {
+		return BASELINE_DIRECTORY.resolve(name.replaceAll("[^\\w.-]", "_") + ".png");
+	}
+
+}
@@ -29,6 +29,9 @@ public final class Configuration {
 	public static void load() {
 		properties = new Properties();
 		Path config = Paths.get("config.properties");
+		if (Files.notExists(config)) {
+			return;
+		}
 		try (BufferedReader reader = Files.newBufferedReader(config, defaultCharset())) {
 			properties.load(reader);
 		} catch (IOException e) {
@@ -49,6 +52,38 @@ public final class Configuration {
 		return Optional.ofNullable(properties.getProperty(property)).orElse("");
 	}
 
+	/**
+	 * Get the property from the command line, falling back to the configuration file and then to the default value.
+	 * 
+	 * @param property     property to fetch
+	 * @param defaultValue value to use when the property is not set anywhere
+	 * @return property value
+	 */
+	public static String get(String property, String defaultValue) {
+		String value = System.getProperty(property);
+		if (value == null || value.trim().isEmpty()) {
+			value = get(property);
+		}
+		return value.trim().isEmpty() ? defaultValue : value.trim();
+	}
+
+	/**
+	 * Get the integer property from the command line, falling back to the configuration file and then to the default
+	 * value.
+	 * 
+	 * @param property     property to fetch
+	 * @param defaultValue value to use when the property is not set or is not a number
+	 * @return property value
+	 */
+	public static int getInt(String property, int defaultValue) {
+		try {
+			return Integer.parseInt(get(property, String.valueOf(defaultValue)));
+		} catch (NumberFormatException e) {
+			Log.warn("Property [" + property + "] is not a number, defaulting to '" + defaultValue + "'...");
+			return defaultValue;
+		}
+	}
+
 	/**
 	 * Print all the properties fetched.
 	 */
@@ -0,0 +1,74 @@
+package setup.utilities;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+
+/**
+ * To wait for an element to become visible or invisible with a MutationObserver and an IntersectionObserver injected
+ * into the page, so the wait ends as soon as the DOM changes instead of at the next poll.
+ * The backend is selected with the <b>waitBackend</b> property: <b>observer</b> (default) or <b>polling</b>.
+ *
+ */
+public final class DomWait {
+
+	private static final boolean ENABLED = !"polling".equalsIgnoreCase(Configuration.get("waitBackend", "observer"));
+	private static final long MAX_SCRIPT_MILLIS = 25000;
+
+	private DomWait() {
+	}
+
+	/**
+	 * Wait in the page until the element located is shown.
+	 *
+	 * @param driver  web driver instance
+	 * @param locator locator of the element
+	 * @param timeout time to wait
+	 * @return true if shown, false if not shown in time or the page cannot be observed
+	 */
+	public static boolean awaitVisible(WebDriver driver, By locator, Duration timeout) {
+		return await(driver, locator, "visible", timeout);
+	}
+
+	/**
+	 * Wait in the page until the element located is hidden or removed.
+	 *
+	 * @param driver  web driver instance
+	 * @param locator locator of the element
+	 * @param timeout time to wait
+	 * @return true if hidden, false if still shown or the page cannot be observed
+	 */
+	public static boolean awaitInvisible(WebDriver driver, By locator, Duration timeout) {
+		return await(driver, locator, "invisible", timeout);
+	}
+
+	/**
+	 * Run the observer script until the wanted state holds or the time runs out.
+	 *
+	 * @param driver  web driver instance
+	 * @param locator locator of the element
+	 * @param wanted  wanted state, "visible" or "invisible"
+	 * @param timeout time to wait
+	 * @return true if the state holds, false otherwise
+	 */
+	private static boolean await(WebDriver driver, By locator, String wanted, Duration timeout) {
+		Object[] target = PageScripts.locatorArguments(locator);
+		if (!ENABLED || target == null || !(driver instanceof JavascriptExecutor)) {
+			return false;
+		}
+		long budget = Math.min(timeout.toMillis(), MAX_SCRIPT_MILLIS);
+		try {
+			Object result = ((JavascriptExecutor) driver).executeAsyncScript(PageScripts.get("domwait.js"), target[0],
+					target[1], wanted, budget);
+			return Boolean.TRUE.equals(result);
+		} catch (ScriptTimeoutException | JavascriptException | UnsupportedCommandException e) {
+			return false;
+		}
+	}
+
+}
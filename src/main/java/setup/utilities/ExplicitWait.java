@@ -1,39 +1,54 @@
 package setup.utilities;
 
+import org.openqa.selenium.By;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.Wait;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import setup.config.DriverFactory;
 
 import java.time.Duration;
 import java.util.function.Function;
 
+import static org.openqa.selenium.support.ui.ExpectedConditions.invisibilityOfElementLocated;
+import static org.openqa.selenium.support.ui.ExpectedConditions.visibilityOfElementLocated;
+import static setup.utilities.StepProfiler.Category.WAIT;
+
 /**
  * To handle conditions that require synchronization.
+ * The wait is bound to the calling thread's web driver on every call, so one object can be shared between threads.
  *
  */
 public final class ExplicitWait {
 
-	private Duration timeout, polling;
-	private Wait<WebDriver> wait;
+	private final Duration timeout, polling;
 
 	/**
-	 * Create wait object with default timeout and polling interval.
+	 * Create wait object with default timeout and adaptive polling.
 	 */
 	public ExplicitWait() {
-		timeout = Duration.ofMinutes(2);
-		polling = Duration.ofSeconds(2);
-		wait = new WebDriverWait(DriverFactory.getDriver(), timeout, polling);
+		this(Duration.ofMinutes(2));
+	}
+
+	/**
+	 * Create wait object with specified timeout and adaptive polling.
+	 * 
+	 * @param timeout time to wait
+	 */
+	public ExplicitWait(Duration timeout) {
+		this(timeout, null);
 	}
 
 	/**
-	 * Create wait object with specified timeout and polling interval.
+	 * Create wait object with specified timeout and fixed polling interval.
 	 * 
 	 * @param timeout time to wait
-	 * @param polling poll interval
+	 * @param polling poll interval, or null to poll adaptively
 	 */
 	public ExplicitWait(Duration timeout, Duration polling) {
-		wait = new WebDriverWait(DriverFactory.getDriver(), timeout, polling);
+		this.timeout = timeout;
+		this.polling = polling;
 	}
 
 	/**
@@ -44,6 +59,80 @@ public final class ExplicitWait {
 	 * @return output
 	 */
 	public <R> R until(Function<WebDriver, R> expectedCondition) {
+		return StepProfiler.time(WAIT, "Wait until", expectedCondition, () -> {
+			Wait<WebDriver> wait = new AdaptiveWait(DriverFactory.getDriver(), timeout, polling);
+			return wait.until(expectedCondition);
+		});
+	}
+
+	/**
+	 * Wait until the specified condition is met, learning how long it usually takes under the description. Lambda
+	 * conditions do not describe themselves, so they should be waited with this one.
+	 * 
+	 * @param <R>         the output to return
+	 * @param condition   condition to wait
+	 * @param description what the condition waits for, e.g. the locator and state
+	 * @return output
+	 */
+	public <R> R until(Function<WebDriver, R> condition, String description) {
+		return StepProfiler.time(WAIT, "Wait until", description, () -> {
+			AdaptiveWait wait = new AdaptiveWait(DriverFactory.getDriver(), timeout, polling);
+			return wait.until(condition, description);
+		});
+	}
+
+	/**
+	 * Wait until the element located is visible, observing the page for changes instead of polling it.
+	 * 
+	 * @param locator locator of the element
+	 * @return visible web element
+	 */
+	public WebElement untilVisible(By locator) {
+		return StepProfiler.time(WAIT, "Wait until visible", locator, () -> {
+			return untilObserved(visibilityOfElementLocated(locator), locator, true);
+		});
+	}
+
+	/**
+	 * Wait until the element located is invisible or removed, observing the page for changes instead of polling it.
+	 * 
+	 * @param locator locator of the element
+	 * @return true once invisible
+	 */
+	public Boolean untilInvisible(By locator) {
+		return StepProfiler.time(WAIT, "Wait until invisible", locator, () -> {
+			return untilObserved(invisibilityOfElementLocated(locator), locator, false);
+		});
+	}
+
+	/**
+	 * Check the condition once, then wait for the page observer to report the state, and finally confirm the
+	 * condition by polling for the rest of the timeout, which is also the fallback if the page cannot be observed.
+	 * 
+	 * @param <R>               the output to return
+	 * @param expectedCondition condition to wait
+	 * @param locator           locator of the element
+	 * @param visible           true to wait for visibility, false for invisibility
+	 * @return output
+	 */
+	private <R> R untilObserved(Function<WebDriver, R> expectedCondition, By locator, boolean visible) {
+		long start = System.nanoTime();
+		WebDriver driver = DriverFactory.getDriver();
+		try {
+			R value = expectedCondition.apply(driver);
+			if (AdaptiveWait.isSatisfied(value)) {
+				return value;
+			}
+		} catch (NotFoundException | StaleElementReferenceException e) {
+			// Not there yet, so observe the page
+		}
+		if (visible) {
+			DomWait.awaitVisible(driver, locator, timeout);
+		} else {
+			DomWait.awaitInvisible(driver, locator, timeout);
+		}
+		Duration remaining = timeout.minusNanos(System.nanoTime() - start);
+		Wait<WebDriver> wait = new AdaptiveWait(driver, remaining.isNegative() ? Duration.ZERO : remaining, polling);
 		return wait.until(expectedCondition);
 	}
 
@@ -2,21 +2,27 @@ package setup.utilities;
 
 import com.google.common.base.Function;
 import org.openqa.selenium.*;
+import org.openqa.selenium.chromium.ChromiumDriver;
 import org.openqa.selenium.support.ui.*;
+import setup.logger.Log;
 
 import java.io.File;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static setup.config.DriverFactory.getDriver;
 import static setup.config.WebDriverThread.INTERVAL_WAIT;
 import static setup.config.WebDriverThread.MAX_WAIT;
+import static setup.utilities.StepProfiler.Category.WAIT;
 
 public class ImplicitWait {
     public static By loadingBy = By.xpath("//div[contains(text(),'Loading...')]");
     public static By loadingImgBy = By.xpath("//div/img[contains(@src,'loading.gif')]");
     public static By processingBy = By.xpath("//div[contains(text(),'Processing...')]");
+    private static final long SETTLE_QUIET_MILLIS = Configuration.getInt("settleQuietMillis", 50);
+    private static final long MAX_SETTLE_SCRIPT_MILLIS = 25000;
 
     public static final ExpectedCondition<Boolean> EXPECT_DOC_READY_STATE = driver -> {
         String script = "if (typeof window != 'undefined' && window.document) { return window.document.readyState; } else { return 'notready'; }";
@@ -30,30 +36,26 @@ public class ImplicitWait {
     };
 
     public static void waitForPageLoad() {
-        FluentWait wait =
-                new FluentWait<>(getDriver()).withTimeout(MAX_WAIT).ignoring(StaleElementReferenceException.class)
-                        .pollingEvery(INTERVAL_WAIT);
-        wait.until(EXPECT_DOC_READY_STATE);
+        StepProfiler.time(WAIT, "Wait for page load", null, () -> {
+            Wait<WebDriver> wait = new AdaptiveWait(getDriver(), MAX_WAIT);
+            wait.until(EXPECT_DOC_READY_STATE);
+        });
     }
 
     public static void waitForInvisibilityElement(By by) {
-        Wait<WebDriver> wait = new WebDriverWait(getDriver(), MAX_WAIT);
-        wait.until(ExpectedConditions.invisibilityOfElementLocated(by));
+        new ExplicitWait(MAX_WAIT).untilInvisible(by);
     }
 
     public static void waitForInvisibilityElement(By by, Duration timeout) {
-        Wait<WebDriver> wait = new WebDriverWait(getDriver(), timeout);
-        wait.until(ExpectedConditions.invisibilityOfElementLocated(by));
+        new ExplicitWait(timeout).untilInvisible(by);
     }
 
     public static void waitForVisibilityElement(By by) {
-        Wait<WebDriver> wait = new WebDriverWait(getDriver(), MAX_WAIT);
-        wait.until(ExpectedConditions.visibilityOfElementLocated(by));
+        new ExplicitWait(MAX_WAIT).untilVisible(by);
     }
 
     public static void waitForVisibilityElement(By by, Duration timeout) {
-        Wait<WebDriver> wait = new WebDriverWait(getDriver(), timeout);
-        wait.until(ExpectedConditions.visibilityOfElementLocated(by));
+        new ExplicitWait(timeout).untilVisible(by);
     }
 
     public static boolean isElementPresent(By by) {
@@ -69,28 +71,85 @@ public class ImplicitWait {
         }
     }
 
-    public static void waitForLoadingInvisibility() {
-        if (isElementPresent(loadingBy)) {
-            waitForInvisibilityElement(loadingBy);
+    /**
+     * Count the XHR/fetch requests of every new document from its start, before the page's own scripts run, so that
+     * the first wait on a page also sees the requests it started while loading. Only Chrome and Edge allow it; the
+     * other browsers are instrumented on their first wait.
+     *
+     * @param driver web driver instance
+     */
+    public static void instrumentNewDocuments(WebDriver driver) {
+        if (!(driver instanceof ChromiumDriver)) {
+            return;
+        }
+        try {
+            ((ChromiumDriver) driver).executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Collections.singletonMap(
+                    "source", "(function() {\n" + PageScripts.get("settlehooks.js") + "installSettleHooks();\n})();"));
+        } catch (WebDriverException e) {
+            Log.warn("Unable to instrument the new documents, waits instrument each page instead: " + e.getMessage());
         }
-        waitForPageLoad();
-        //Log.info("Page loading has been completed");
+    }
+
+    /**
+     * Wait until the page is idle: document loaded, no XHR/fetch request in flight, no
+     * AngularJS digest running and no loading indicator shown for at least the <b>settleQuietMillis</b> window, after
+     * which the animation frames already requested are let run. A page instrumented by this wait cannot count the
+     * requests already in flight, so it is never reported as settled by its first wait.
+     *
+     * @param timeout time to wait
+     * @return true if the page settled, false if it is still busy, was not instrumented yet or cannot be
+     */
+    public static boolean waitForPageSettle(Duration timeout) {
+        return StepProfiler.time(WAIT, "Wait for page settle", null, () -> {
+            WebDriver driver = getDriver();
+            if (!(driver instanceof JavascriptExecutor)) {
+                return false;
+            }
+            long budget = Math.min(timeout.toMillis(), MAX_SETTLE_SCRIPT_MILLIS);
+            try {
+                Object settled = ((JavascriptExecutor) driver).executeAsyncScript(PageScripts.get("settlehooks.js", "settle.js"),
+                        SETTLE_QUIET_MILLIS, budget, PageScripts.locatorArguments(loadingBy)[1]);
+                return Boolean.TRUE.equals(settled);
+            } catch (ScriptTimeoutException | JavascriptException | UnsupportedCommandException e) {
+                return false;
+            }
+        });
+    }
+
+    public static void waitForLoadingInvisibility() {
+        StepProfiler.time(WAIT, "Wait for loading", null, () -> {
+            if (waitForPageSettle(MAX_WAIT)) {
+                return;
+            }
+            if (isElementPresent(loadingBy)) {
+                waitForInvisibilityElement(loadingBy);
+            }
+            waitForPageLoad();
+            //Log.info("Page loading has been completed");
+        });
     }
 
     public static void waitForLoadingInvisibility(Duration timeout) {
-        if (isElementPresent(loadingBy)) {
-            waitForInvisibilityElement(loadingBy, timeout);
-        }
-        waitForPageLoad();
-        //Log.info("Page loading has been completed");
+        StepProfiler.time(WAIT, "Wait for loading", null, () -> {
+            if (waitForPageSettle(timeout)) {
+                return;
+            }
+            if (isElementPresent(loadingBy)) {
+                waitForInvisibilityElement(loadingBy, timeout);
+            }
+            waitForPageLoad();
+            //Log.info("Page loading has been completed");
+        });
     }
 
     public static void sleep(int sec) {
-        try {
-            TimeUnit.SECONDS.sleep(sec);
-            //Log.info("Page sleep for " + sec + " seconds has been completed");
-        } catch (InterruptedException ignored) {
-        }
+        StepProfiler.time(WAIT, "Sleep", sec + " s", () -> {
+            try {
+                TimeUnit.SECONDS.sleep(sec);
+                //Log.info("Page sleep for " + sec + " seconds has been completed");
+            } catch (InterruptedException ignored) {
+            }
+        });
     }
 
 
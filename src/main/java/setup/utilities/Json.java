@@ -0,0 +1,63 @@
+package setup.utilities;
+
+/**
+ * To write values as JSON without a JSON library.
+ *
+ */
+public final class Json {
+
+	private Json() {
+	}
+
+	/**
+	 * Append the value to the JSON being built, as a quoted and escaped string, or as null.
+	 * 
+	 * @param json  JSON being built
+	 * @param value value to append
+	 * @return the JSON being built
+	 */
+	public static StringBuilder quote(StringBuilder json, String value) {
+		if (value == null) {
+			return json.append("null");
+		}
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				json.append("\\\"");
+				break;
+			case '\\':
+				json.append("\\\\");
+				break;
+			case '\n':
+				json.append("\\n");
+				break;
+			case '\r':
+				json.append("\\r");
+				break;
+			case '\t':
+				json.append("\\t");
+				break;
+			default:
+				if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+					json.append(String.format("\\u%04x", (int) c));
+				} else {
+					json.append(c);
+				}
+			}
+		}
+		return json.append('"');
+	}
+
+	/**
+	 * Get the value as a quoted and escaped JSON string, or as null.
+	 * 
+	 * @param value value to quote
+	 * @return JSON string
+	 */
+	public static String quote(String value) {
+		return quote(new StringBuilder(), value).toString();
+	}
+
+}
@@ -0,0 +1,71 @@
+package setup.utilities;
+
+import org.openqa.selenium.By;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * To load the java scripts injected into the page and to pass locators to them.
+ *
+ */
+public final class PageScripts {
+
+	private static final Map<String, String> scripts = new ConcurrentHashMap<>();
+
+	private PageScripts() {
+	}
+
+	/**
+	 * Get the scripts from the resources joined in order, with the locator functions of <b>locator.js</b> in front of
+	 * them.
+	 *
+	 * @param resources script file names
+	 * @return script source
+	 */
+	public static String get(String... resources) {
+		return scripts.computeIfAbsent(String.join(",", resources),
+				names -> read("locator.js") + Arrays.stream(resources).map(PageScripts::read).collect(joining()));
+	}
+
+	/**
+	 * Get the locator as the (using, value) script arguments understood by <b>locator.js</b>.
+	 *
+	 * @param locator locator of the element
+	 * @return script arguments, or null if the locator cannot be run in the page
+	 */
+	public static Object[] locatorArguments(By locator) {
+		if (!(locator instanceof By.Remotable)) {
+			return null;
+		}
+		By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+		return new Object[] { parameters.using(), String.valueOf(parameters.value()) };
+	}
+
+	/**
+	 * Read the script from the resources.
+	 *
+	 * @param resource script file name
+	 * @return script source
+	 */
+	private static String read(String resource) {
+		InputStream in = PageScripts.class.getResourceAsStream("/" + resource);
+		if (in == null) {
+			throw new IllegalArgumentException("Unable to find the script [" + resource + "]");
+		}
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			return reader.lines().collect(joining("\n", "", "\n"));
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read the script [" + resource + "]", e);
+		}
+	}
+
+}
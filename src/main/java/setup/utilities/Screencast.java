@@ -0,0 +1,228 @@
+package setup.utilities;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+
+import javax.imageio.ImageIO;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+
+import setup.logger.Log;
+import setup.utilities.ScreenshotStore.StoredScreenshot;
+
+/**
+ * To keep the last seconds of a Chrome or Edge session in memory, streamed as small JPEG frames through the DevTools
+ * screencast, so that a failure can be reported with the frames that led to it. Chrome sends a frame whenever the
+ * page repaints, so at most 10 frames a second are kept: a frame arriving sooner replaces the newest one. Frames live
+ * in a fixed-size ring buffer, are dropped once older than the recorded seconds, and are only encoded, into one frame
+ * strip image, when a test fails. Enabled with the <b>screencast</b>
+ * property and sized with <b>screencastSeconds</b> and <b>screencastMaxWidth</b>.
+ *
+ */
+public final class Screencast {
+
+	private static final boolean ENABLED = Boolean.parseBoolean(Configuration.get("screencast", "false"));
+	private static final int SECONDS = Math.max(1, Configuration.getInt("screencastSeconds", 10));
+	private static final int MAX_WIDTH = Math.max(160, Configuration.getInt("screencastMaxWidth", 640));
+	private static final int FRAMES_PER_SECOND = 10;
+	private static final long FRAME_INTERVAL_MILLIS = 1000 / FRAMES_PER_SECOND;
+	private static final int STRIP_FRAMES = 12;
+	private static final int STRIP_COLUMNS = 4;
+	private static final Map<WebDriver, Screencast> screencasts = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final byte[][] frames = new byte[SECONDS * FRAMES_PER_SECOND][];
+	private final long[] frameTimes = new long[frames.length];
+	private int next;
+	private int count;
+
+	private Screencast() {
+	}
+
+	/**
+	 * Start streaming the session's frames into its ring buffer, if the screencast is enabled and the browser
+	 * supports it. Does nothing if the session is already streaming.
+	 * 
+	 * @param driver web driver instance
+	 */
+	public static void attach(WebDriver driver) {
+		if (!ENABLED || !(driver instanceof HasDevTools) || screencasts.containsKey(driver)) {
+			return;
+		}
+		Screencast screencast = new Screencast();
+		screencasts.put(driver, screencast);
+		try {
+			DevTools devTools = ((HasDevTools) driver).getDevTools();
+			devTools.createSessionIfThereIsNotOne();
+			devTools.addListener(new Event<>("Page.screencastFrame",
+					input -> input.<Map<String, Object>>read(org.openqa.selenium.json.Json.MAP_TYPE)), frame -> {
+						screencast.add(Base64.getDecoder().decode(String.valueOf(frame.get("data"))));
+						Map<String, Object> ack = new HashMap<>();
+						ack.put("sessionId", frame.get("sessionId"));
+						devTools.send(new Command<Void>("Page.screencastFrameAck", ack).doesNotSendResponse());
+					});
+			Map<String, Object> parameters = new HashMap<>();
+			parameters.put("format", "jpeg");
+			parameters.put("quality", 40);
+			parameters.put("maxWidth", MAX_WIDTH);
+			parameters.put("maxHeight", MAX_WIDTH);
+			devTools.send(new Command<Void>("Page.startScreencast", parameters));
+			Log.info("Started the screencast of the browser session");
+		} catch (WebDriverException e) {
+			Log.warn("Unable to start the screencast of the browser session: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Drop the frames of the current thread's browser, e.g. when a test starts or passes.
+	 * 
+	 * @param driver web driver instance, or null if the thread has no browser
+	 */
+	public static void discard(WebDriver driver) {
+		Screencast screencast = driver == null ? null : screencasts.get(driver);
+		if (screencast != null) {
+			screencast.clear();
+		}
+	}
+
+	/**
+	 * Encode the buffered frames of the browser into a frame strip in the background, and drop them.
+	 * 
+	 * @param driver web driver instance, or null if the thread has no browser
+	 * @param name   name of the frame strip, for the logs
+	 * @return the stored frame strip, once encoded; null if there were no frames
+	 */
+	public static CompletableFuture<StoredScreenshot> encode(WebDriver driver, String name) {
+		Screencast screencast = driver == null ? null : screencasts.get(driver);
+		if (screencast == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		List<byte[]> frames = screencast.drain();
+		if (frames.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				StoredScreenshot strip = ScreenshotStore.store(strip(frames));
+				Log.info("Screencast [{}] of {} frame(s) stored as {}", name, frames.size(),
+						strip.getImage().getFileName());
+				return strip;
+			} catch (IOException e) {
+				Log.error("Unable to encode the screencast [" + name + "]", e);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Add a frame, after dropping the frames older than the recorded seconds. A frame arriving within the frame
+	 * interval of the newest one replaces it, so the buffer always spans the recorded seconds however fast the page
+	 * repaints; otherwise the oldest frame is overwritten when the buffer is full.
+	 * 
+	 * @param frame JPEG bytes
+	 */
+	private synchronized void add(byte[] frame) {
+		long now = System.currentTimeMillis();
+		while (count > 0 && frameTimes[(next - count + frames.length) % frames.length] < now - SECONDS * 1000L) {
+			frames[(next - count + frames.length) % frames.length] = null;
+			count--;
+		}
+		int newest = (next - 1 + frames.length) % frames.length;
+		if (count > 0 && now - frameTimes[newest] < FRAME_INTERVAL_MILLIS) {
+			frames[newest] = frame;
+			return;
+		}
+		frames[next] = frame;
+		frameTimes[next] = now;
+		next = (next + 1) % frames.length;
+		count = Math.min(count + 1, frames.length);
+	}
+
+	/**
+	 * Drop all the frames.
+	 */
+	private synchronized void clear() {
+		for (int i = 0; i < frames.length; i++) {
+			frames[i] = null;
+		}
+		count = 0;
+	}
+
+	/**
+	 * Take the frames of the last seconds, oldest first, and drop them from the buffer.
+	 * 
+	 * @return frames as JPEG bytes
+	 */
+	private synchronized List<byte[]> drain() {
+		long oldest = System.currentTimeMillis() - SECONDS * 1000L;
+		List<byte[]> recent = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int index = (next - count + i + frames.length) % frames.length;
+			if (frameTimes[index] >= oldest) {
+				recent.add(frames[index]);
+			}
+		}
+		clear();
+		return recent;
+	}
+
+	/**
+	 * Lay out frames spread evenly over the recording on a grid, oldest first.
+	 * 
+	 * @param frames frames as JPEG bytes
+	 * @return frame strip as PNG bytes
+	 * @throws IOException if a frame cannot be decoded
+	 */
+	private static byte[] strip(List<byte[]> frames) throws IOException {
+		int shown = Math.min(STRIP_FRAMES, frames.size());
+		List<BufferedImage> images = new ArrayList<>(shown);
+		for (int i = 0; i < shown; i++) {
+			int index = shown == 1 ? frames.size() - 1 : i * (frames.size() - 1) / (shown - 1);
+			BufferedImage image = ImageIO.read(new ByteArrayInputStream(frames.get(index)));
+			if (image != null) {
+				images.add(image);
+			}
+		}
+		if (images.isEmpty()) {
+			throw new IOException("Unable to decode the screencast frames");
+		}
+		int width = images.get(images.size() - 1).getWidth();
+		int height = images.get(images.size() - 1).getHeight();
+		int columns = Math.min(STRIP_COLUMNS, images.size());
+		int rows = (images.size() + columns - 1) / columns;
+		BufferedImage strip = new BufferedImage(columns * width, rows * height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = strip.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, strip.getWidth(), strip.getHeight());
+		for (int i = 0; i < images.size(); i++) {
+			int x = (i % columns) * width;
+			int y = (i / columns) * height;
+			graphics.drawImage(images.get(i), x, y, width, height, null);
+			graphics.setColor(Color.RED);
+			graphics.drawRect(x, y, width - 1, height - 1);
+		}
+		graphics.dispose();
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(strip, "png", png);
+		return png.toByteArray();
+	}
+
+}
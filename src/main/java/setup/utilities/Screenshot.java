@@ -1,30 +1,35 @@
 package setup.utilities;
 
-import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
-import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
-import static org.openqa.selenium.OutputType.BASE64;
-import static org.openqa.selenium.OutputType.FILE;
+import static org.openqa.selenium.OutputType.BYTES;
+import static setup.utilities.StepProfiler.Category.SCREENSHOT;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import setup.logger.Log;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.remote.Augmenter;
 import setup.config.DriverFactory;
+import setup.utilities.ScreenshotStore.StoredScreenshot;
 
 /**
  *
- * To take Screenshots
+ * To take Screenshots. The page is captured once, on the calling thread and only locking its own driver; storing it
+ * in the {@link ScreenshotStore} happens in the background.
  *
  */
 public final class Screenshot {
 
+	private static final ExecutorService writer = Executors.newFixedThreadPool(2, task -> {
+		Thread thread = new Thread(task, "screenshot-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
 	private Screenshot() {
 	}
 
@@ -33,66 +38,102 @@ public final class Screenshot {
 	 * 
 	 * @return base64 string
 	 */
-	public static synchronized String takeScreenShot() {
-		String base64 = "";
-		LocalDateTime dateTime = LocalDateTime.now();
-		DateTimeFormatter datePattern = DateTimeFormatter.ofPattern("yyyy.MM.dd.HH.mm.ss.SSS");
-		String fileName = "ScreenShot_" + datePattern.format(dateTime) + ".png";
-		Path screenshot = Paths.get(System.getProperty("user.dir"), "target", "screenshots", fileName);
+	public static String takeScreenShot() {
+		return takeScreenShot("ScreenShot");
+	}
+
+	/**
+	 * Take <b>Screenshot</b> of the current page and store it in the background.
+	 * 
+	 * @param name screenshot name, for the logs
+	 * @return base64 string
+	 */
+	public static String takeScreenShot(String name) {
+		byte[] png;
 		try {
-			if (Files.notExists(screenshot.getParent(), NOFOLLOW_LINKS))
-				Files.createDirectory(screenshot.getParent());
-			try {
-				base64 = writeScreenshotToFile(DriverFactory.getDriver(), screenshot);
-			} catch (ClassCastException e) {
-				WebDriver driver = new Augmenter().augment(DriverFactory.getDriver());
-				base64 = writeScreenshotToFile(driver, screenshot);
-			}
-		} catch (IOException e) {
+			png = capture(DriverFactory.getDriver());
+		} catch (RuntimeException e) {
 			Log.error("Unable to take screen shot", e);
+			return "";
 		}
-		return base64;
+		store(name, png);
+		return Base64.getEncoder().encodeToString(png);
 	}
 
 	/**
-	 * Take <b>Screenshot</b> of the current page.
+	 * Take <b>Screenshot</b> of the current page without storing it, e.g. to compare it with a visual baseline.
 	 * 
-	 * @param name screenshot file name
-	 * @return base64 string
+	 * @return screenshot as PNG bytes
+	 */
+	public static byte[] takeScreenShotBytes() {
+		return capture(DriverFactory.getDriver());
+	}
+
+	/**
+	 * Take <b>Screenshot</b> of the current page, returning as soon as the page has been captured.
+	 * 
+	 * @param name screenshot name, for the logs
+	 * @return the stored screenshot, once it has been written; null if the capture or the write failed
 	 */
-	public static synchronized String takeScreenShot(String name) {
-		String base64 = "";
-		LocalDateTime dateTime = LocalDateTime.now();
-		DateTimeFormatter datePattern = DateTimeFormatter.ofPattern("yyyy.MM.dd.HH.mm.ss.SSS");
-		String fileName = name + "_" + datePattern.format(dateTime) + ".png";
-		Path screenshot = Paths.get(System.getProperty("user.dir"), "target", "screenshots", fileName);
+	public static CompletableFuture<StoredScreenshot> takeScreenShotAsync(String name) {
 		try {
-			if (Files.notExists(screenshot.getParent(), NOFOLLOW_LINKS))
-				Files.createDirectory(screenshot.getParent());
-			try {
-				base64 = writeScreenshotToFile(DriverFactory.getDriver(), screenshot);
-			} catch (ClassCastException e) {
-				WebDriver driver = new Augmenter().augment(DriverFactory.getDriver());
-				base64 = writeScreenshotToFile(driver, screenshot);
-			}
-		} catch (IOException e) {
+			return store(name, capture(DriverFactory.getDriver()));
+		} catch (RuntimeException e) {
 			Log.error("Unable to take screen shot", e);
+			return CompletableFuture.completedFuture(null);
 		}
-		return base64;
 	}
 
 	/**
-	 * Write the screenshot taken to a file.
+	 * Get the stored screenshot of a screenshot taken with {@link #takeScreenShotAsync(String)}.
 	 * 
-	 * @param driver     web driver instance
-	 * @param screenshot screenshot path
-	 * @return base64 string
-	 * @throws IOException
+	 * @param screenshot screenshot future
+	 * @return the stored screenshot, or null if there is none
+	 */
+	public static StoredScreenshot stored(Object screenshot) {
+		if (screenshot instanceof CompletableFuture) {
+			Object stored = ((CompletableFuture<?>) screenshot).join();
+			return stored instanceof StoredScreenshot ? (StoredScreenshot) stored : null;
+		}
+		return null;
+	}
+
+	/**
+	 * Store the screenshot in the background.
+	 * 
+	 * @param name screenshot name, for the logs
+	 * @param png  screenshot as PNG bytes
+	 * @return the stored screenshot, once it has been written; null if the write failed
 	 */
-	private static String writeScreenshotToFile(WebDriver driver, Path screenshot) throws IOException {
-		Path screenshotOutput = ((TakesScreenshot) driver).getScreenshotAs(FILE).toPath();
-		Files.copy(screenshotOutput, screenshot, REPLACE_EXISTING);
-		return ((TakesScreenshot) driver).getScreenshotAs(BASE64);
+	private static CompletableFuture<StoredScreenshot> store(String name, byte[] png) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				StoredScreenshot stored = ScreenshotStore.store(png);
+				Log.info("Screenshot [{}] stored as {}{}", name, stored.getImage().getFileName(),
+						stored.isDuplicate() ? " (duplicate)" : "");
+				return stored;
+			} catch (IOException e) {
+				Log.error("Unable to store screen shot [" + name + "]", e);
+				return null;
+			}
+		}, writer);
+	}
+
+	/**
+	 * Capture the page as PNG bytes, locking only the driver so that other threads keep capturing their own pages.
+	 * 
+	 * @param driver web driver instance
+	 * @return PNG bytes
+	 */
+	private static byte[] capture(WebDriver driver) {
+		return StepProfiler.time(SCREENSHOT, "Screenshot", null, () -> {
+			synchronized (driver) {
+				if (driver instanceof TakesScreenshot) {
+					return ((TakesScreenshot) driver).getScreenshotAs(BYTES);
+				}
+				return ((TakesScreenshot) new Augmenter().augment(driver)).getScreenshotAs(BYTES);
+			}
+		});
 	}
 
 }
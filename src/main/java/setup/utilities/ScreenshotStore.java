@@ -0,0 +1,251 @@
+package setup.utilities;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * To store the screenshots by the hash of their content, so that identical screenshots (e.g. the same error page in
+ * many failures) are written once. Each screenshot is stored optionally downscaled, in the configured format, next to
+ * a small thumbnail for the report. They are stored inside the report folder, so the report keeps its images when the
+ * folder is archived or published on its own. Configured with the <b>screenshotFormat</b> (png or jpg),
+ * <b>screenshotQuality</b> (percent, for jpg), <b>screenshotMaxWidth</b> (0 keeps the size) and
+ * <b>screenshotThumbnailWidth</b> properties.
+ *
+ */
+public final class ScreenshotStore {
+
+	public static final Path STORE_DIRECTORY = Paths.get(System.getProperty("user.dir"), "test-output", "screenshots");
+	private static final String FORMAT = Configuration.get("screenshotFormat", "jpg").toLowerCase().startsWith("png")
+			? "png" : "jpg";
+	private static final float QUALITY = Math.max(1, Math.min(100, Configuration.getInt("screenshotQuality", 80)))
+			/ 100f;
+	private static final int MAX_WIDTH = Configuration.getInt("screenshotMaxWidth", 0);
+	private static final int THUMBNAIL_WIDTH = Configuration.getInt("screenshotThumbnailWidth", 320);
+
+	private ScreenshotStore() {
+	}
+
+	/**
+	 * Store the screenshot, unless the same screenshot has been stored already.
+	 * 
+	 * @param png screenshot as PNG bytes
+	 * @return the stored image and thumbnail
+	 * @throws IOException if the screenshot cannot be decoded or written
+	 */
+	public static StoredScreenshot store(byte[] png) throws IOException {
+		String hash = sha256(png);
+		Path image = STORE_DIRECTORY.resolve(hash + "." + FORMAT);
+		Path thumbnail = STORE_DIRECTORY.resolve(hash + "_thumb.jpg");
+		if (Files.exists(image) && Files.exists(thumbnail)) {
+			return new StoredScreenshot(hash, image, thumbnail, true);
+		}
+		Files.createDirectories(STORE_DIRECTORY);
+		BufferedImage screenshot = ImageIO.read(new ByteArrayInputStream(png));
+		if (screenshot == null) {
+			throw new IOException("Unable to decode the screenshot");
+		}
+		if (FORMAT.equals("png") && (MAX_WIDTH <= 0 || screenshot.getWidth() <= MAX_WIDTH)) {
+			write(image, out -> out.write(png));
+		} else {
+			BufferedImage scaled = scale(screenshot, MAX_WIDTH);
+			write(image, out -> encode(scaled, FORMAT, out));
+		}
+		BufferedImage small = scale(screenshot, THUMBNAIL_WIDTH);
+		write(thumbnail, out -> encode(small, "jpg", out));
+		return new StoredScreenshot(hash, image, thumbnail, false);
+	}
+
+	/**
+	 * Downscale the image to the width, keeping its aspect ratio.
+	 * 
+	 * @param image image to scale
+	 * @param width maximum width, or 0 to keep the size
+	 * @return the scaled image, or the image itself if it is narrow enough
+	 */
+	private static BufferedImage scale(BufferedImage image, int width) {
+		if (width <= 0 || image.getWidth() <= width) {
+			return image;
+		}
+		int height = Math.max(1, (int) ((long) image.getHeight() * width / image.getWidth()));
+		BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = scaled.createGraphics();
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+		graphics.drawImage(image, 0, 0, width, height, null);
+		graphics.dispose();
+		return scaled;
+	}
+
+	/**
+	 * Encode the image in the format, with the configured quality for jpg.
+	 * 
+	 * @param image  image to encode
+	 * @param format png or jpg
+	 * @param out    stream to write to
+	 * @throws IOException if the image cannot be encoded
+	 */
+	private static void encode(BufferedImage image, String format, OutputStream out) throws IOException {
+		if (format.equals("png")) {
+			ImageIO.write(image, "png", out);
+			return;
+		}
+		BufferedImage rgb = image;
+		if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+			rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+			Graphics2D graphics = rgb.createGraphics();
+			graphics.drawImage(image, 0, 0, null);
+			graphics.dispose();
+		}
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
+		ImageWriter writer = writers.next();
+		ImageWriteParam parameters = writer.getDefaultWriteParam();
+		parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+		parameters.setCompressionQuality(QUALITY);
+		try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+			writer.setOutput(imageOut);
+			writer.write(null, new IIOImage(rgb, null, null), parameters);
+		} finally {
+			writer.dispose();
+		}
+	}
+
+	/**
+	 * Write the file through a temporary file, so that a concurrent store of the same screenshot never sees it half
+	 * written.
+	 * 
+	 * @param file    file to write
+	 * @param content writer of the content
+	 * @throws IOException if the file cannot be written
+	 */
+	private static void write(Path file, Content content) throws IOException {
+		Path temporary = Files.createTempFile(STORE_DIRECTORY, "screenshot", ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(temporary)) {
+				content.writeTo(out);
+			}
+			Files.move(temporary, file, REPLACE_EXISTING, ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * Get the SHA-256 hash of the content.
+	 * 
+	 * @param content content to hash
+	 * @return hexadecimal hash
+	 * @throws IOException if SHA-256 is not available
+	 */
+	private static String sha256(byte[] content) throws IOException {
+		try {
+			StringBuilder hex = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Content written to a stored file.
+	 */
+	@FunctionalInterface
+	private interface Content {
+
+		void writeTo(OutputStream out) throws IOException;
+
+	}
+
+	/**
+	 * A screenshot in the store.
+	 */
+	public static final class StoredScreenshot {
+
+		private final String hash;
+		private final Path image;
+		private final Path thumbnail;
+		private final boolean duplicate;
+
+		private StoredScreenshot(String hash, Path image, Path thumbnail, boolean duplicate) {
+			this.hash = hash;
+			this.image = image;
+			this.thumbnail = thumbnail;
+			this.duplicate = duplicate;
+		}
+
+		/**
+		 * Get the hash of the screenshot content.
+		 * 
+		 * @return hexadecimal SHA-256 hash
+		 */
+		public String getHash() {
+			return hash;
+		}
+
+		/**
+		 * Get the stored image.
+		 * 
+		 * @return image path
+		 */
+		public Path getImage() {
+			return image;
+		}
+
+		/**
+		 * Get the thumbnail of the image.
+		 * 
+		 * @return thumbnail path
+		 */
+		public Path getThumbnail() {
+			return thumbnail;
+		}
+
+		/**
+		 * Check whether the same screenshot had been stored already.
+		 * 
+		 * @return true if it was a duplicate, false otherwise
+		 */
+		public boolean isDuplicate() {
+			return duplicate;
+		}
+
+		/**
+		 * Get the HTML of the thumbnail, loaded lazily and linking to the full image, to embed in a report.
+		 * 
+		 * @param reportDirectory folder of the report, which the paths are made relative to
+		 * @return HTML markup
+		 */
+		public String toHtml(Path reportDirectory) {
+			String imageLink = relative(reportDirectory, image);
+			return "<a href='" + imageLink + "' target='_blank'><img src='" + relative(reportDirectory, thumbnail)
+					+ "' loading='lazy' style='max-width:" + THUMBNAIL_WIDTH + "px' alt='screenshot'/></a>";
+		}
+
+		private static String relative(Path directory, Path file) {
+			return directory.toAbsolutePath().relativize(file.toAbsolutePath()).toString().replace('\\', '/');
+		}
+
+	}
+
+}
@@ -0,0 +1,499 @@
+package setup.utilities;
+
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * To time the steps of a test, i.e. navigations, waits, element actions and screenshots, as nested spans, and to show
+ * where the time of each test went as a breakdown table and a flame chart in the report, with the slowest steps of the
+ * suite. The profiler is switched off with the <b>stepProfiler</b> property.
+ *
+ */
+public final class StepProfiler {
+
+	private static final boolean ENABLED = Boolean.parseBoolean(Configuration.get("stepProfiler", "true"));
+	private static final int TOP_STEPS = Configuration.getInt("profilerTopSteps", 10);
+	private static final int MAX_SPANS = 2000;
+	private static final int ROW_HEIGHT = 18;
+	private static final Span NONE = new Span(null, null, null, null, 0, 0);
+	private static final Map<ITestResult, Recording> recordings = new IdentityHashMap<>();
+	private static final ThreadLocal<Recording> currentRecording = new ThreadLocal<>();
+	private static final PriorityQueue<Step> slowestSteps = new PriorityQueue<>(
+			Comparator.comparingLong(step -> step.nanos));
+
+	private StepProfiler() {
+	}
+
+	/**
+	 * The kind of work a step spends its time on.
+	 */
+	public enum Category {
+
+		NAVIGATION("#4e79a7"), ACTION("#59a14f"), WAIT("#f28e2b"), SCREENSHOT("#b07aa1");
+
+		private final String colour;
+
+		Category(String colour) {
+			this.colour = colour;
+		}
+
+	}
+
+	/**
+	 * Start timing a step of the running test. The step ends when the returned span is closed, and the steps started
+	 * until then are nested in it. Outside of a test method, including in its configuration methods, nothing is
+	 * recorded.
+	 *
+	 * @param category kind of the step
+	 * @param action   what the step does, e.g. <b>Click</b>
+	 * @param subject  what the step acts on, e.g. the element description, or null
+	 * @return span to close when the step ends
+	 */
+	public static Span start(Category category, String action, Object subject) {
+		if (!ENABLED) {
+			return NONE;
+		}
+		Recording recording = recording();
+		if (recording == null) {
+			return NONE;
+		}
+		Span parent = recording.open.peek();
+		Span span = new Span(recording, parent, category, subject == null ? action : new Object[] { action, subject },
+				recording.open.size(), ++recording.started);
+		recording.open.push(span);
+		if (recording.spans.size() < MAX_SPANS) {
+			recording.spans.add(span);
+		}
+		return span;
+	}
+
+	/**
+	 * Run a step of the running test, timed as a span.
+	 *
+	 * @param category kind of the step
+	 * @param action   what the step does, e.g. <b>Click</b>
+	 * @param subject  what the step acts on, e.g. the element description, or null
+	 * @param step     step to run
+	 */
+	public static void time(Category category, String action, Object subject, Runnable step) {
+		Span span = start(category, action, subject);
+		try {
+			step.run();
+		} finally {
+			span.close();
+		}
+	}
+
+	/**
+	 * Run a step of the running test which returns an output, timed as a span.
+	 *
+	 * @param <T>      the output to return
+	 * @param category kind of the step
+	 * @param action   what the step does, e.g. <b>Click</b>
+	 * @param subject  what the step acts on, e.g. the element description, or null
+	 * @param step     step to run
+	 * @return output of the step
+	 */
+	public static <T> T time(Category category, String action, Object subject, Supplier<T> step) {
+		Span span = start(category, action, subject);
+		try {
+			return step.get();
+		} finally {
+			span.close();
+		}
+	}
+
+	/**
+	 * Get the innermost step still running on this thread, e.g. to tag what is logged during it.
+	 *
+	 * @return running step, or null if no step of a test is running
+	 */
+	public static Span currentSpan() {
+		Recording recording = currentRecording.get();
+		if (recording == null || recording.result != Reporter.getCurrentTestResult()) {
+			return null;
+		}
+		return recording.open.peek();
+	}
+
+	/**
+	 * Get the profile of the test's steps. The steps are moved from the profiler to the <b>stepProfile</b> attribute of
+	 * the test, so every listener gets the same profile.
+	 *
+	 * @param result the finished test
+	 * @return profile of the test, or null if no step was recorded
+	 */
+	public static Profile take(ITestResult result) {
+		Recording recording;
+		synchronized (recordings) {
+			Object profile = result.getAttribute("stepProfile");
+			if (profile instanceof Profile) {
+				return (Profile) profile;
+			}
+			recording = recordings.remove(result);
+			if (recording == null || recording.spans.isEmpty()) {
+				return null;
+			}
+			Profile taken = new Profile(recording);
+			result.setAttribute("stepProfile", taken);
+			return taken;
+		}
+	}
+
+	/**
+	 * Get the slowest top level steps of the suite as an html table.
+	 *
+	 * @return html of the slowest steps, or an empty string if no step was recorded
+	 */
+	public static String slowestStepsHtml() {
+		List<Step> steps;
+		synchronized (slowestSteps) {
+			steps = new ArrayList<>(slowestSteps);
+		}
+		if (steps.isEmpty()) {
+			return "";
+		}
+		steps.sort(slowestSteps.comparator().reversed());
+		StringBuilder html = new StringBuilder("<b>Slowest steps</b><table class='table table-sm'>"
+				+ "<tr><th>Time (ms)</th><th>Category</th><th>Step</th><th>Test</th></tr>");
+		for (Step step : steps) {
+			html.append("<tr><td>").append(TimeUnit.NANOSECONDS.toMillis(step.nanos)).append("</td><td>")
+					.append(step.category).append("</td><td>").append(escape(step.name)).append("</td><td>")
+					.append(escape(step.test)).append("</td></tr>");
+		}
+		return html.append("</table>").toString();
+	}
+
+	/**
+	 * Get the recording of the test running on this thread. The configuration methods have results of their own which
+	 * no listener takes a profile from, so their steps are not recorded.
+	 *
+	 * @return recording, or null if no test method is running
+	 */
+	private static Recording recording() {
+		ITestResult result = Reporter.getCurrentTestResult();
+		if (result == null || !result.getMethod().isTest()) {
+			return null;
+		}
+		Recording recording = currentRecording.get();
+		if (recording == null || recording.result != result) {
+			synchronized (recordings) {
+				recording = recordings.computeIfAbsent(result, Recording::new);
+			}
+			currentRecording.set(recording);
+		}
+		return recording;
+	}
+
+	/**
+	 * Keep the top level step if it is one of the slowest of the suite.
+	 *
+	 * @param span the ended top level step
+	 */
+	private static void offer(Span span) {
+		if (TOP_STEPS <= 0) {
+			return;
+		}
+		synchronized (slowestSteps) {
+			if (slowestSteps.size() >= TOP_STEPS) {
+				if (slowestSteps.peek().nanos >= span.nanos) {
+					return;
+				}
+				slowestSteps.poll();
+			}
+			slowestSteps.add(new Step(span.recording.result.getName(), span.category, span.name(), span.nanos));
+		}
+	}
+
+	/**
+	 * Append a row of the breakdown table.
+	 *
+	 * @param html           table html
+	 * @param category       category name
+	 * @param steps          number of steps
+	 * @param nanos          self time of the steps
+	 * @param durationMillis duration of the test
+	 */
+	private static void appendRow(StringBuilder html, String category, long steps, long nanos, long durationMillis) {
+		html.append(String.format(Locale.ROOT, "<tr><td>%s</td><td>%s</td><td>%d</td><td>%.1f%%</td></tr>",
+				category, steps == 0 ? "" : String.valueOf(steps), TimeUnit.NANOSECONDS.toMillis(nanos),
+				nanos / 1e4 / durationMillis));
+	}
+
+	/**
+	 * Escape the text for html.
+	 *
+	 * @param text text to escape
+	 * @return escaped text
+	 */
+	public static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("'", "&#39;")
+				.replace("\"", "&quot;");
+	}
+
+	/**
+	 * The steps of a finished test, summed per category and per top level step.
+	 */
+	public static final class Profile {
+
+		private final Recording recording;
+		private final long originMillis;
+		private final Map<Category, long[]> breakdown = new EnumMap<>(Category.class);
+		private final Map<String, long[]> steps = new LinkedHashMap<>();
+		private long durationMillis;
+		private int depth;
+
+		private Profile(Recording recording) {
+			this.recording = recording;
+			ITestResult result = recording.result;
+			originMillis = recording.originMillis - result.getStartMillis();
+			durationMillis = Math.max(1, result.getEndMillis() - result.getStartMillis());
+			for (Span span : recording.spans) {
+				if (span.nanos >= 0) {
+					long[] totals = breakdown.computeIfAbsent(span.category, category -> new long[2]);
+					totals[0]++;
+					totals[1] += span.nanos - span.childNanos;
+					if (span.depth == 0) {
+						long[] step = steps.computeIfAbsent(span.name(), name -> new long[2]);
+						step[0]++;
+						step[1] += span.nanos;
+					}
+					durationMillis = Math.max(durationMillis, (long) Math.ceil(span.endMillis(originMillis)));
+					depth = Math.max(depth, span.depth);
+				}
+			}
+		}
+
+		/**
+		 * Get the time spent in the steps of the category, leaving out the steps nested in them.
+		 *
+		 * @param category kind of the steps
+		 * @return self time in milliseconds
+		 */
+		public long getSelfMillis(Category category) {
+			long[] totals = breakdown.get(category);
+			return totals == null ? 0 : TimeUnit.NANOSECONDS.toMillis(totals[1]);
+		}
+
+		/**
+		 * Get the top level steps of the test by name, in the order they first ran.
+		 *
+		 * @return the number of times each step ran and its total time in milliseconds
+		 */
+		public Map<String, long[]> getSteps() {
+			Map<String, long[]> millis = new LinkedHashMap<>();
+			steps.forEach((name, step) -> millis.put(name,
+					new long[] { step[0], TimeUnit.NANOSECONDS.toMillis(step[1]) }));
+			return millis;
+		}
+
+		/**
+		 * Get the steps as a JSON array, with their start from the start of the test and their duration in
+		 * milliseconds.
+		 *
+		 * @return JSON of the steps
+		 */
+		public String toJson() {
+			StringBuilder json = new StringBuilder("[");
+			for (Span span : recording.spans) {
+				if (span.nanos >= 0) {
+					double millis = span.nanos / 1e6;
+					json.append(json.length() == 1 ? "" : ",").append("{\"id\":").append(span.id)
+							.append(",\"category\":\"").append(span.category)
+							.append("\",\"name\":");
+					Json.quote(json, span.name()).append(",\"depth\":").append(span.depth).append(String.format(Locale.ROOT,
+							",\"startMillis\":%.1f,\"durationMillis\":%.1f,\"selfMillis\":%.1f}",
+							span.endMillis(originMillis) - millis, millis, (span.nanos - span.childNanos) / 1e6));
+				}
+			}
+			return json.append(']').toString();
+		}
+
+		/**
+		 * Get the breakdown table and the flame chart of the steps as html.
+		 *
+		 * @return html of the profile
+		 */
+		public String toHtml() {
+			StringBuilder chart = new StringBuilder();
+			for (Span span : recording.spans) {
+				double millis = span.nanos / 1e6;
+				if (millis >= 1) {
+					double startMillis = span.endMillis(originMillis) - millis;
+					chart.append(String.format(Locale.ROOT, "<div title='%s (%.0f ms)' style='position:absolute;"
+							+ "left:%.3f%%;width:%.3f%%;top:%dpx;height:%dpx;background:%s;color:#fff;font-size:11px;"
+							+ "overflow:hidden;white-space:nowrap;border-right:1px solid #fff'>%s</div>",
+							escape(span.name()), millis, startMillis * 100 / durationMillis,
+							Math.max(0.05, millis * 100 / durationMillis), span.depth * ROW_HEIGHT, ROW_HEIGHT - 2,
+							span.category.colour, escape(span.name())));
+				}
+			}
+			StringBuilder html = new StringBuilder("<b>Step profile</b><table class='table table-sm'>"
+					+ "<tr><th>Category</th><th>Steps</th><th>Self time (ms)</th><th>Share</th></tr>");
+			long profiledNanos = 0;
+			for (Map.Entry<Category, long[]> entry : breakdown.entrySet()) {
+				long[] totals = entry.getValue();
+				profiledNanos += totals[1];
+				appendRow(html, entry.getKey().toString(), totals[0], totals[1], durationMillis);
+			}
+			appendRow(html, "OTHER", 0, Math.max(0, TimeUnit.MILLISECONDS.toNanos(durationMillis) - profiledNanos),
+					durationMillis);
+			html.append("</table><div style='position:relative;width:100%;height:").append((depth + 1) * ROW_HEIGHT)
+					.append("px'>").append(chart).append("</div>");
+			return html.toString();
+		}
+
+	}
+
+	/**
+	 * The steps recorded for a test.
+	 */
+	private static final class Recording {
+
+		private final ITestResult result;
+		private final long originNanos = System.nanoTime();
+		private final long originMillis = System.currentTimeMillis();
+		private final List<Span> spans = new ArrayList<>();
+		private final Deque<Span> open = new ArrayDeque<>();
+		private int started;
+
+		private Recording(ITestResult result) {
+			this.result = result;
+		}
+
+	}
+
+	/**
+	 * A timed step, ended when closed.
+	 */
+	public static final class Span implements AutoCloseable {
+
+		private final Recording recording;
+		private final Span parent;
+		private final Category category;
+		private final Object name;
+		private final int depth;
+		private final int id;
+		private final long startNanos = System.nanoTime();
+		private long nanos = -1;
+		private long childNanos;
+
+		private Span(Recording recording, Span parent, Category category, Object name, int depth, int id) {
+			this.recording = recording;
+			this.parent = parent;
+			this.category = category;
+			this.name = name;
+			this.depth = depth;
+			this.id = id;
+		}
+
+		/**
+		 * Get the id of the step, its start order in the test from 1.
+		 *
+		 * @return step id
+		 */
+		public int getId() {
+			return id;
+		}
+
+		/**
+		 * Get the name of the step.
+		 *
+		 * @return step name
+		 */
+		public String getName() {
+			return name();
+		}
+
+		/**
+		 * Get the name of the step, built only when it is shown.
+		 *
+		 * @return step name
+		 */
+		private String name() {
+			if (name instanceof Object[]) {
+				Object[] parts = (Object[]) name;
+				return parts[0] + " [" + parts[1] + "]";
+			}
+			return String.valueOf(name);
+		}
+
+		/**
+		 * Get when the step ended, from the start of the test.
+		 *
+		 * @param originMillis start of the recording, from the start of the test
+		 * @return end of the step in milliseconds
+		 */
+		private double endMillis(long originMillis) {
+			return originMillis + (startNanos + nanos - recording.originNanos) / 1e6;
+		}
+
+		/**
+		 * End the step, and any step nested in it that was left open.
+		 */
+		@Override
+		public void close() {
+			if (recording == null || nanos >= 0) {
+				return;
+			}
+			long now = System.nanoTime();
+			Span open;
+			while (!recording.open.isEmpty() && (open = recording.open.pop()) != this) {
+				open.end(now);
+			}
+			end(now);
+		}
+
+		/**
+		 * Set the time of the step and add it to its parent's, innermost steps first.
+		 *
+		 * @param endNanos end of the step
+		 */
+		private void end(long endNanos) {
+			if (nanos >= 0) {
+				return;
+			}
+			nanos = endNanos - startNanos;
+			if (parent != null) {
+				parent.childNanos += nanos;
+			} else {
+				offer(this);
+			}
+		}
+
+	}
+
+	/**
+	 * A top level step kept for the slowest steps of the suite.
+	 */
+	private static final class Step {
+
+		private final String test;
+		private final Category category;
+		private final String name;
+		private final long nanos;
+
+		private Step(String test, Category category, String name, long nanos) {
+			this.test = test;
+			this.category = category;
+			this.name = name;
+			this.nanos = nanos;
+		}
+
+	}
+
+}
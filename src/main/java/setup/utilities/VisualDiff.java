@@ -0,0 +1,307 @@
+package setup.utilities;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import javax.imageio.ImageIO;
+
+import setup.logger.Log;
+import setup.utilities.ScreenshotStore.StoredScreenshot;
+
+/**
+ * To compare screenshots of pages and elements with their baselines. Byte-identical screenshots are matched without
+ * decoding them, and the rest are diffed in tiles, in parallel across the cores. The perceptual hash (dHash) of both
+ * images is reported as a similarity score; only when <b>visualHashThreshold</b> is set to 0 or more are screenshots
+ * whose hashes differ by at most that many bits matched without diffing their pixels, which can pass small changes
+ * such as one changed word. Configured
+ * with the <b>visualPixelTolerance</b> (0-255 per colour channel), <b>visualTolerancePercent</b> (share of different
+ * pixels allowed) and <b>visualTileSize</b> properties.
+ *
+ */
+public final class VisualDiff {
+
+	private static final int PIXEL_TOLERANCE = Configuration.getInt("visualPixelTolerance", 16);
+	private static final double TOLERANCE_PERCENT = Double
+			.parseDouble(Configuration.get("visualTolerancePercent", "0.1"));
+	private static final int TILE_SIZE = Math.max(8, Configuration.getInt("visualTileSize", 64));
+	private static final int HASH_THRESHOLD = Configuration.getInt("visualHashThreshold", -1);
+	private static final int DIFF_COLOUR = 0xffff0000;
+	private static final Path REPORT_DIRECTORY = Paths.get(System.getProperty("user.dir"), "test-output");
+
+	private VisualDiff() {
+	}
+
+	/**
+	 * Compare the screenshot with the baseline of the name. A missing baseline is recorded from the screenshot.
+	 * 
+	 * @param name       baseline name
+	 * @param screenshot screenshot as PNG bytes
+	 * @return the comparison result
+	 */
+	public static Result compareWithBaseline(String name, byte[] screenshot) {
+		try {
+			byte[] baseline = BaselineStore.load(name);
+			if (baseline == null || BaselineStore.isUpdating()) {
+				BaselineStore.save(name, screenshot);
+				Log.warn("Recorded the visual baseline [" + name + "]");
+				return new Result(name, true, 0, 0, null);
+			}
+			Result result = compare(name, baseline, screenshot);
+			if (result.isMatch() && Double.isNaN(result.getDifferentPercent())) {
+				Log.info("Visual baseline [{}] matched by its perceptual hash (hash distance {})", name,
+						result.getHashDistance());
+			} else if (result.isMatch()) {
+				Log.info("Visual baseline [{}] matched ({}% different pixels, hash distance {})", name,
+						String.format("%.3f", result.getDifferentPercent()), result.getHashDistance());
+			} else {
+				Log.warn("Visual baseline [{}] did not match ({}% different pixels, hash distance {})", name,
+						String.format("%.3f", result.getDifferentPercent()), result.getHashDistance());
+				if (result.getDiffImage() != null) {
+					Log.info(result.getDiffImage().toHtml(REPORT_DIRECTORY));
+				}
+			}
+			return result;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Unable to compare the visual baseline [" + name + "]", e);
+		}
+	}
+
+	/**
+	 * Compare two screenshots. Unless the hash threshold is switched on, the pixels of screenshots which are not
+	 * byte-identical are always diffed.
+	 * 
+	 * @param name     name of the comparison
+	 * @param expected expected screenshot as PNG bytes
+	 * @param actual   actual screenshot as PNG bytes
+	 * @return the comparison result
+	 * @throws IOException if a screenshot cannot be decoded or the diff image cannot be stored
+	 */
+	public static Result compare(String name, byte[] expected, byte[] actual) throws IOException {
+		if (Arrays.equals(expected, actual)) {
+			return new Result(name, true, 0, 0, null);
+		}
+		BufferedImage expectedImage = ImageIO.read(new ByteArrayInputStream(expected));
+		BufferedImage actualImage = ImageIO.read(new ByteArrayInputStream(actual));
+		if (expectedImage == null || actualImage == null) {
+			throw new IOException("Unable to decode the screenshots of [" + name + "]");
+		}
+		int hashDistance = Long.bitCount(dHash(expectedImage) ^ dHash(actualImage));
+		int width = actualImage.getWidth();
+		int height = actualImage.getHeight();
+		if (expectedImage.getWidth() != width || expectedImage.getHeight() != height) {
+			Log.warn("Visual baseline [{}] is {}x{} but the screenshot is {}x{}", name, expectedImage.getWidth(),
+					expectedImage.getHeight(), width, height);
+			return new Result(name, false, 100, hashDistance, ScreenshotStore.store(actual));
+		}
+		if (hashDistance <= HASH_THRESHOLD) {
+			return new Result(name, true, Double.NaN, hashDistance, null);
+		}
+		int[] expectedPixels = expectedImage.getRGB(0, 0, width, height, null, 0, width);
+		int[] actualPixels = actualImage.getRGB(0, 0, width, height, null, 0, width);
+		int[] diffPixels = new int[actualPixels.length];
+		AtomicLong different = new AtomicLong();
+		int columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+		int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+		IntStream.range(0, columns * rows).parallel().forEach(tile -> {
+			long tileDifferent = diffTile(expectedPixels, actualPixels, diffPixels, width, height,
+					(tile % columns) * TILE_SIZE, (tile / columns) * TILE_SIZE);
+			if (tileDifferent > 0) {
+				different.addAndGet(tileDifferent);
+			}
+		});
+		double differentPercent = different.get() * 100.0 / actualPixels.length;
+		boolean match = differentPercent <= TOLERANCE_PERCENT;
+		StoredScreenshot diffImage = null;
+		if (!match) {
+			BufferedImage diff = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			diff.setRGB(0, 0, width, height, diffPixels, 0, width);
+			ByteArrayOutputStream png = new ByteArrayOutputStream();
+			ImageIO.write(diff, "png", png);
+			diffImage = ScreenshotStore.store(png.toByteArray());
+		}
+		return new Result(name, match, differentPercent, hashDistance, diffImage);
+	}
+
+	/**
+	 * Diff one tile of the images. The pixels which differ by more than the tolerance are painted in the diff image
+	 * over a faded copy of the actual image.
+	 * 
+	 * @param expected expected pixels
+	 * @param actual   actual pixels
+	 * @param diff     diff image pixels
+	 * @param width    image width
+	 * @param height   image height
+	 * @param left     left of the tile
+	 * @param top      top of the tile
+	 * @return number of different pixels in the tile
+	 */
+	private static long diffTile(int[] expected, int[] actual, int[] diff, int width, int height, int left, int top) {
+		int right = Math.min(left + TILE_SIZE, width);
+		int bottom = Math.min(top + TILE_SIZE, height);
+		long different = 0;
+		for (int y = top; y < bottom; y++) {
+			for (int i = y * width + left; i < y * width + right; i++) {
+				if (expected[i] != actual[i] && exceedsTolerance(expected[i], actual[i])) {
+					diff[i] = DIFF_COLOUR;
+					different++;
+				} else {
+					diff[i] = fade(actual[i]);
+				}
+			}
+		}
+		return different;
+	}
+
+	/**
+	 * Check whether any colour channel of the pixels differs by more than the tolerance.
+	 * 
+	 * @param expected expected pixel
+	 * @param actual   actual pixel
+	 * @return true if different, false otherwise
+	 */
+	private static boolean exceedsTolerance(int expected, int actual) {
+		for (int shift = 0; shift <= 16; shift += 8) {
+			if (Math.abs(((expected >> shift) & 0xff) - ((actual >> shift) & 0xff)) > PIXEL_TOLERANCE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Fade the pixel towards white, for the background of the diff image.
+	 * 
+	 * @param pixel pixel to fade
+	 * @return faded pixel
+	 */
+	private static int fade(int pixel) {
+		int red = 191 + (((pixel >> 16) & 0xff) >> 2);
+		int green = 191 + (((pixel >> 8) & 0xff) >> 2);
+		int blue = 191 + ((pixel & 0xff) >> 2);
+		return 0xff000000 | red << 16 | green << 8 | blue;
+	}
+
+	/**
+	 * Get the difference hash of the image: the image is reduced to 9x8 grey pixels and each bit tells whether a
+	 * pixel is brighter than its right neighbour.
+	 * 
+	 * @param image image to hash
+	 * @return 64 bit hash
+	 */
+	static long dHash(BufferedImage image) {
+		double[][] grey = new double[8][9];
+		int width = image.getWidth();
+		int height = image.getHeight();
+		for (int row = 0; row < 8; row++) {
+			for (int column = 0; column < 9; column++) {
+				int x0 = column * width / 9;
+				int x1 = Math.max(x0 + 1, (column + 1) * width / 9);
+				int y0 = row * height / 8;
+				int y1 = Math.max(y0 + 1, (row + 1) * height / 8);
+				int stepX = Math.max(1, (x1 - x0) / 8);
+				int stepY = Math.max(1, (y1 - y0) / 8);
+				double sum = 0;
+				int count = 0;
+				for (int y = y0; y < Math.min(y1, height); y += stepY) {
+					for (int x = x0; x < Math.min(x1, width); x += stepX) {
+						int pixel = image.getRGB(x, y);
+						sum += 0.299 * ((pixel >> 16) & 0xff) + 0.587 * ((pixel >> 8) & 0xff) + 0.114 * (pixel & 0xff);
+						count++;
+					}
+				}
+				grey[row][column] = count == 0 ? 0 : sum / count;
+			}
+		}
+		long hash = 0;
+		for (int row = 0; row < 8; row++) {
+			for (int column = 0; column < 8; column++) {
+				hash = hash << 1 | (grey[row][column] > grey[row][column + 1] ? 1 : 0);
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * The result of a visual comparison.
+	 */
+	public static final class Result {
+
+		private final String name;
+		private final boolean match;
+		private final double differentPercent;
+		private final int hashDistance;
+		private final StoredScreenshot diffImage;
+
+		private Result(String name, boolean match, double differentPercent, int hashDistance,
+				StoredScreenshot diffImage) {
+			this.name = name;
+			this.match = match;
+			this.differentPercent = differentPercent;
+			this.hashDistance = hashDistance;
+			this.diffImage = diffImage;
+		}
+
+		/**
+		 * Get the name of the comparison.
+		 * 
+		 * @return baseline name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Check whether the screenshot matched within the tolerance.
+		 * 
+		 * @return true if matched, false otherwise
+		 */
+		public boolean isMatch() {
+			return match;
+		}
+
+		/**
+		 * Get the share of pixels which differ by more than the pixel tolerance.
+		 * 
+		 * @return different pixels in percent, or NaN if the pixels were not diffed because the hashes matched
+		 */
+		public double getDifferentPercent() {
+			return differentPercent;
+		}
+
+		/**
+		 * Get the number of bits which differ between the perceptual hashes of the images, from 0 (look alike) to 64.
+		 * 
+		 * @return hash distance
+		 */
+		public int getHashDistance() {
+			return hashDistance;
+		}
+
+		/**
+		 * Get the diff image, with the different pixels in red.
+		 * 
+		 * @return the stored diff image, or null if the screenshot matched
+		 */
+		public StoredScreenshot getDiffImage() {
+			return diffImage;
+		}
+
+		@Override
+		public String toString() {
+			return "[" + name + "] " + (match ? "matched" : "did not match") + " ("
+					+ (Double.isNaN(differentPercent) ? "pixels not diffed"
+							: String.format("%.3f", differentPercent) + "% different pixels")
+					+ ", hash distance " + hashDistance + ")";
+		}
+
+	}
+
+}
@@ -0,0 +1,51 @@
+var using = arguments[0], value = arguments[1], loading = arguments[2], settleMillis = arguments[3];
+var done = arguments[arguments.length - 1];
+
+function isLoading() {
+	return loading ? findAll('xpath', loading).some(isShown) : false;
+}
+
+function isIdle() {
+	return document.readyState === 'complete' && !isLoading()
+		&& (!window.__jupiterSettle || window.__jupiterSettle.isIdle());
+}
+
+// An error before the click is reported as a state, so that an error raised to the caller always means the click was
+// dispatched, e.g. the document unloaded while waiting for the page to settle
+try {
+	var element = find(using, value);
+	if (!element) {
+		return done('absent');
+	}
+	if (!isShown(element)) {
+		return done('hidden');
+	}
+	if (element.disabled) {
+		return done('disabled');
+	}
+	if (isLoading()) {
+		return done('loading');
+	}
+	element.scrollIntoView({ block: 'center', inline: 'center' });
+	var rect = element.getBoundingClientRect();
+	var topmost = document.elementFromPoint(rect.left + rect.width / 2, rect.top + rect.height / 2);
+	if (topmost && topmost !== element && !element.contains(topmost)) {
+		return done('obscured');
+	}
+} catch (e) {
+	return done('failed: ' + e.message);
+}
+var hooked = !!window.__jupiterSettle;
+element.click();
+
+// Give the click's handlers a turn of the event loop before checking that the page has settled
+var deadline = Date.now() + settleMillis;
+setTimeout(function settle() {
+	if (isIdle()) {
+		return done(hooked ? 'settled' : 'clicked');
+	}
+	if (Date.now() > deadline) {
+		return done('clicked');
+	}
+	setTimeout(settle, 10);
+}, 0);
@@ -0,0 +1,59 @@
+var using = arguments[0], value = arguments[1], wanted = arguments[2], budgetMillis = arguments[3];
+var done = arguments[arguments.length - 1];
+var mutations, intersections, observed, timer, scheduled = false, finished = false;
+
+function holds() {
+	var shown = isShown(find(using, value));
+	return wanted === 'visible' ? shown : !shown;
+}
+
+function finish(result) {
+	if (finished) {
+		return;
+	}
+	finished = true;
+	mutations.disconnect();
+	if (intersections) {
+		intersections.disconnect();
+	}
+	document.removeEventListener('transitionend', schedule, true);
+	document.removeEventListener('animationend', schedule, true);
+	clearTimeout(timer);
+	done(result);
+}
+
+function check() {
+	scheduled = false;
+	if (holds()) {
+		return finish(true);
+	}
+	// Watch the current match so that it is re-checked when it scrolls or is laid out into view
+	var element = find(using, value);
+	if (element && element !== observed && window.IntersectionObserver) {
+		if (intersections) {
+			intersections.disconnect();
+		}
+		observed = element;
+		intersections = new IntersectionObserver(schedule);
+		intersections.observe(element);
+	}
+}
+
+function schedule() {
+	if (!scheduled && !finished) {
+		scheduled = true;
+		Promise.resolve().then(check);
+	}
+}
+
+if (holds()) {
+	return done(true);
+}
+mutations = new MutationObserver(schedule);
+mutations.observe(document.documentElement, { childList: true, subtree: true, attributes: true, characterData: true });
+document.addEventListener('transitionend', schedule, true);
+document.addEventListener('animationend', schedule, true);
+timer = setTimeout(function() {
+	finish(holds());
+}, budgetMillis);
+check();
@@ -0,0 +1,33 @@
+var using = arguments[0], value = arguments[1], elements = arguments[2], attributes = arguments[3];
+var allVisible = arguments[4];
+
+function attribute(element, name) {
+	var property = element[name];
+	var found = property !== undefined && property !== null && typeof property !== 'object'
+		&& typeof property !== 'function' ? property : element.getAttribute(name);
+	return found === null || found === undefined ? null : String(found);
+}
+
+var found = elements || findAll(using, value);
+if (found.length === 0) {
+	return null;
+}
+var data = [];
+for (var i = 0; i < found.length; i++) {
+	var element = found[i], shown = isShown(element);
+	if (allVisible && !shown) {
+		return null;
+	}
+	var rect = element.getBoundingClientRect(), values = {};
+	for (var a = 0; a < attributes.length; a++) {
+		values[attributes[a]] = attribute(element, attributes[a]);
+	}
+	data.push({
+		text: shown ? element.innerText.trim() : '',
+		visible: shown,
+		rect: [Math.round(rect.left + window.pageXOffset), Math.round(rect.top + window.pageYOffset),
+			Math.round(rect.width), Math.round(rect.height)],
+		attributes: values
+	});
+}
+return data;
@@ -0,0 +1,39 @@
+function findAll(using, value, root) {
+	root = root || document;
+	if (using === 'css selector') {
+		return Array.prototype.slice.call(root.querySelectorAll(value));
+	}
+	if (using === 'xpath') {
+		var found = [];
+		var result = document.evaluate(value, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+		for (var i = 0; i < result.snapshotLength; i++) {
+			found.push(result.snapshotItem(i));
+		}
+		return found;
+	}
+	if (using === 'tag name') {
+		return Array.prototype.slice.call(root.getElementsByTagName(value));
+	}
+	return Array.prototype.slice.call(root.getElementsByTagName('a')).filter(function(link) {
+		var text = (link.innerText || link.textContent || '').trim();
+		return using === 'link text' ? text === value : text.indexOf(value) !== -1;
+	});
+}
+
+function find(using, value, root) {
+	if (using === 'css selector') {
+		return (root || document).querySelector(value);
+	}
+	return findAll(using, value, root)[0] || null;
+}
+
+function isShown(element) {
+	if (!element || !element.isConnected) {
+		return false;
+	}
+	var style = window.getComputedStyle(element);
+	var rect = element.getBoundingClientRect();
+	return style.display !== 'none' && style.visibility !== 'hidden' && parseFloat(style.opacity) > 0
+		&& rect.width > 0 && rect.height > 0;
+}
+
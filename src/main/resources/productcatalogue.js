@@ -0,0 +1,11 @@
+var products = [], titles = document.querySelectorAll('li h4');
+for (var i = 0; i < titles.length; i++) {
+	var card = titles[i].closest('li');
+	var buy = card.querySelector('a');
+	if (!buy) {
+		continue;
+	}
+	var price = card.querySelector('span');
+	products.push([titles[i].textContent.trim(), price ? price.textContent.trim() : '', card, buy]);
+}
+return products.length === 0 ? null : products;
@@ -0,0 +1,37 @@
+var quietMillis = arguments[0], budgetMillis = arguments[1], loading = arguments[2];
+var done = arguments[arguments.length - 1];
+
+// Hooks installed by this call miss the requests already in flight, e.g. the ones started by the action being waited
+// for, so the page only counts as settled if the hooks were already there
+var hooked = !!window.__jupiterSettle;
+installSettleHooks();
+
+// Once idle, let the animation frames already requested run before reporting; a throttled (hidden) window may never
+// run them, so do not wait for more than a few frames' time
+function afterPendingFrames(callback) {
+	var called = false;
+	var once = function() {
+		if (!called) {
+			called = true;
+			callback();
+		}
+	};
+	window.requestAnimationFrame(function() {
+		setTimeout(once, 0);
+	});
+	setTimeout(once, 100);
+}
+
+var deadline = Date.now() + budgetMillis;
+(function check() {
+	var idle = window.__jupiterSettle.isIdle(quietMillis) && !(loading && findAll('xpath', loading).some(isShown));
+	if (idle) {
+		return afterPendingFrames(function() {
+			done(hooked);
+		});
+	}
+	if (Date.now() > deadline) {
+		return done(false);
+	}
+	setTimeout(check, 10);
+})();
@@ -0,0 +1,70 @@
+// Instrument the page once per document: count the in-flight XHR/fetch requests. Where the browser allows it, this runs
+// in every new document before the page's own scripts, so the requests started while the page loads are counted too
+function installSettleHooks() {
+	if (window.__jupiterSettle) {
+		return;
+	}
+	var state = { requests: 0, lastActivity: Date.now() };
+	var touch = function() {
+		state.lastActivity = Date.now();
+	};
+	var tracked = function() {
+		var finished = false;
+		state.requests++;
+		touch();
+		return function() {
+			if (!finished) {
+				finished = true;
+				state.requests--;
+				touch();
+			}
+		};
+	};
+
+	var send = XMLHttpRequest.prototype.send;
+	XMLHttpRequest.prototype.send = function() {
+		var end = tracked();
+		this.addEventListener('loadend', end);
+		try {
+			return send.apply(this, arguments);
+		} catch (e) {
+			end();
+			throw e;
+		}
+	};
+
+	if (window.fetch) {
+		var fetch = window.fetch;
+		window.fetch = function() {
+			var end = tracked();
+			try {
+				return fetch.apply(this, arguments).then(function(response) {
+					end();
+					return response;
+				}, function(error) {
+					end();
+					throw error;
+				});
+			} catch (e) {
+				end();
+				throw e;
+			}
+		};
+	}
+
+	var angularBusy = function() {
+		try {
+			var injector = window.angular && window.angular.element(document.body).injector();
+			return !!injector && (!!injector.get('$rootScope').$$phase || injector.get('$http').pendingRequests.length > 0);
+		} catch (e) {
+			return false;
+		}
+	};
+
+	window.__jupiterSettle = {
+		isIdle: function(quiet) {
+			return document.readyState === 'complete' && state.requests === 0 && !angularBusy()
+				&& Date.now() - state.lastActivity >= (quiet || 0);
+		}
+	};
+}
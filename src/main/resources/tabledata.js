@@ -0,0 +1,25 @@
+var table = arguments[0];
+
+function text(element) {
+	return isShown(element) ? element.innerText.trim() : '';
+}
+
+var headers = [], rows = [];
+var headerCells = table.querySelectorAll('th');
+for (var h = 0; h < headerCells.length; h++) {
+	headers.push(text(headerCells[h]));
+}
+var tableRows = table.querySelectorAll('tr');
+for (var r = 0; r < tableRows.length; r++) {
+	var cells = tableRows[r].querySelectorAll('td');
+	if (cells.length === 0) {
+		continue;
+	}
+	var row = [];
+	for (var c = 0; c < cells.length; c++) {
+		var input = cells[c].querySelector('input, select, textarea');
+		row.push([text(cells[c]), cells[c].textContent, input ? input.value : null]);
+	}
+	rows.push(row);
+}
+return { headers: headers, rows: rows };
@@ -0,0 +1,44 @@
+package Retry;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+import setup.base.BaseTest;
+import setup.config.DriverFactory;
+import setup.utilities.Configuration;
+
+public class RetryTests extends BaseTest {
+
+    String FIRST_SESSION;
+
+    //Fails its first attempt on purpose, so it only runs from Retry.xml and not in AllModule.xml
+    @Test
+    public void TestCase6(){
+
+        if (Configuration.getInt("retryCount", 1) < 1) {
+            throw new SkipException("Retries are switched off with retryCount");
+        }
+
+        openUrl(environment.getUrl());
+        WebDriver driver = DriverFactory.getDriver();
+
+        //Leave a cookie and web storage behind and fail the first attempt, so it is retried
+        if (FIRST_SESSION == null) {
+            FIRST_SESSION = DriverFactory.currentSessionId();
+            driver.manage().addCookie(new Cookie("retryProbe", "dirty"));
+            ((JavascriptExecutor) driver).executeScript("window.localStorage.setItem('retryProbe', 'dirty');");
+            Assert.fail("Failing the first attempt to check the retry");
+        }
+
+        //Verify the retry runs on the same warm browser
+        Assert.assertEquals(DriverFactory.currentSessionId(), FIRST_SESSION, "Retry did not run on the same browser");
+
+        //Verify the browser was reset before the retry
+        Assert.assertNull(driver.manage().getCookieNamed("retryProbe"), "Cookie of the failed attempt was kept");
+        Assert.assertNull(((JavascriptExecutor) driver).executeScript("return window.localStorage.getItem('retryProbe');"),
+                "Web storage of the failed attempt was kept");
+    }
+}
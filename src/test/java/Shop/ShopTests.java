@@ -7,6 +7,7 @@ import pages.Common.MenuPage;
 import pages.Shop.ShopPage;
 import properties.Environment;
 import properties.Pages;
+import properties.PurchaseMode;
 import properties.ToyDetails;
 import setup.base.BaseTest;
 
@@ -46,4 +47,52 @@ public class ShopTests extends BaseTest {
         String ACT_TOYS_TOTAL = ShopPage.TotalLbl.getText().replace("Total: ", "");
         Assert.assertEquals(ACT_TOYS_TOTAL, EXP_TOYS_TOTAL, "Total is incorrect");
     }
+
+    @Test
+    public void TestCase4(){
+
+        List<ToyDetails> TOYS = new ArrayList<>();
+        TOYS.add(new ToyDetails("Stuffed Frog", 2));
+        TOYS.add(new ToyDetails("Fluffy Bunny", 5));
+        TOYS.add(new ToyDetails("Valentine Bear", 3));
+
+        openUrl(environment.getUrl());
+
+        //Go to the shop page
+        MenuPage.GoToPage(Pages.SHOP);
+
+        //Buy 2 Stuffed Frog, 5 Fluffy Bunny, 3 Valentine Bear, verifying the cart count once per toy
+        List<ToyDetails> EXP_TOYS = ShopPage.BuyToys(TOYS, PurchaseMode.PER_ITEM);
+
+        //Go to the cart page
+        MenuPage.GoToPage(Pages.CART);
+
+        //Verify the items, prices and subtotals in the cart
+        List<ToyDetails> ACT_TOYS = CartPage.GetCartItems();
+        Assert.assertEquals(ACT_TOYS, EXP_TOYS, "Items added to Cart did not matched");
+    }
+
+    @Test
+    public void TestCase5(){
+
+        List<ToyDetails> TOYS = new ArrayList<>();
+        TOYS.add(new ToyDetails("Stuffed Frog", 2));
+        TOYS.add(new ToyDetails("Fluffy Bunny", 5));
+        TOYS.add(new ToyDetails("Valentine Bear", 3));
+
+        openUrl(environment.getUrl());
+
+        //Go to the shop page
+        MenuPage.GoToPage(Pages.SHOP);
+
+        //Buy 2 Stuffed Frog, 5 Fluffy Bunny, 3 Valentine Bear, verifying the cart count once for the whole basket
+        List<ToyDetails> EXP_TOYS = ShopPage.BuyToys(TOYS, PurchaseMode.PER_BASKET);
+
+        //Go to the cart page
+        MenuPage.GoToPage(Pages.CART);
+
+        //Verify the items, prices and subtotals in the cart
+        List<ToyDetails> ACT_TOYS = CartPage.GetCartItems();
+        Assert.assertEquals(ACT_TOYS, EXP_TOYS, "Items added to Cart did not matched");
+    }
 }